@@ -0,0 +1,157 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.output.RecordingOutputSink;
+import lombok.AllArgsConstructor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many scripts in one JVM, on a bounded pool of worker threads.
+ * <p>
+ * Every script is run on its own {@link LoxRun}, whose output is recorded
+ * and then written in the order of the scripts, whatever the order they
+ * finish in. The results of every script are preceded by a
+ * {@code ==> script <==} header, and its diagnostics are followed by its
+ * exit status: {@value #EXIT_SUCCESS} if it ran without error,
+ * {@value #EXIT_ERROR} if there was an error in its code, and
+ * {@value #EXIT_IO_ERROR} if it could not be read.
+ * <p>
+ * A script that makes the interpreter itself fail, e.g. by nesting
+ * expressions too deeply, is reported with {@value #EXIT_ERROR} as well, and
+ * does not stop the other scripts.
+ */
+class BatchRunner {
+
+    static final int EXIT_SUCCESS = 0;
+
+    static final int EXIT_ERROR = 65;
+
+    static final int EXIT_IO_ERROR = 74;
+
+    private final LoxOptions options;
+
+    BatchRunner(LoxOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs scripts and writes their output.
+     *
+     * @param scripts The paths of the scripts.
+     * @param output The sink the output of every script is written to.
+     *
+     * @return The highest exit status of the scripts.
+     */
+    int run(List<String> scripts, OutputSink output) {
+        int workers = Math.max(1, Math.min(this.options.getJobs(), scripts.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "jlox-batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<ScriptResult>> results = new ArrayList<>();
+            for (String script : scripts) {
+                results.add(pool.submit(() -> this.runScript(script)));
+            }
+
+            int status = EXIT_SUCCESS;
+            for (int i = 0; i < scripts.size(); i++) {
+                ScriptResult result = await(scripts.get(i), results.get(i));
+                output.result("==> " + scripts.get(i) + " <==");
+                result.output.replay(output);
+                output.diagnostic(
+                    "==> " + scripts.get(i) + " <== exit status " + result.status
+                );
+                status = Math.max(status, result.status);
+            }
+            return status;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a script, recording its output.
+     *
+     * @param script The path of the script.
+     *
+     * @return The output and the exit status of the script.
+     */
+    private ScriptResult runScript(String script) {
+        RecordingOutputSink output = new RecordingOutputSink();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(Paths.get(script));
+        } catch (IOException exception) {
+            output.diagnostic("Could not read " + script + ": " + exception);
+            return new ScriptResult(output, EXIT_IO_ERROR);
+        }
+
+        LoxRun run = new LoxRun(this.options, output);
+        try {
+            run.runScript(bytes);
+        } catch (RuntimeException | Error exception) {
+            // Every Lox error, lexer errors included, is reported by the run,
+            // so this is an error in the interpreter itself
+            return failed(script, output, exception);
+        }
+        return new ScriptResult(output, run.hadError() ? EXIT_ERROR : EXIT_SUCCESS);
+    }
+
+    /**
+     * Waits for the result of a script.
+     *
+     * @param script The path of the script.
+     * @param result The result of the script.
+     *
+     * @return The output and the exit status of the script.
+     */
+    private static ScriptResult await(String script, Future<ScriptResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        } catch (ExecutionException exception) {
+            return failed(script, new RecordingOutputSink(), exception.getCause());
+        }
+    }
+
+    /**
+     * Reports that the interpreter failed to run a script.
+     *
+     * @param script The path of the script.
+     * @param output The output the script recorded before the failure.
+     * @param failure The failure.
+     *
+     * @return The output and the exit status of the script.
+     */
+    private static ScriptResult failed(String script, RecordingOutputSink output, Throwable failure) {
+        output.diagnostic("Could not run " + script + ": " + failure);
+        return new ScriptResult(output, EXIT_ERROR);
+    }
+
+    /**
+     * The output and exit status of a script.
+     */
+    @AllArgsConstructor
+    private static class ScriptResult {
+
+        private final RecordingOutputSink output;
+
+        private final int status;
+
+    }
+
+}
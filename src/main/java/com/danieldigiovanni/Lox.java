@@ -1,20 +1,19 @@
 package com.danieldigiovanni;
 
-import com.danieldigiovanni.expr.Expr;
-import com.danieldigiovanni.expr.visitor.AstTreePrinterVisitor;
-import com.danieldigiovanni.interpreter.Interpreter;
-import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
-import com.danieldigiovanni.lexer.Lexer;
-import com.danieldigiovanni.parser.Parser;
-import com.danieldigiovanni.parser.exception.LoxParseException;
-import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.cache.CompileCache;
+import com.danieldigiovanni.exception.DebugMode;
+import com.danieldigiovanni.interpreter.MemoizingInterpreter;
+import com.danieldigiovanni.interpreter.ParallelInterpreter;
+import com.danieldigiovanni.output.OutputSink;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.reflect.Proxy;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,106 +22,126 @@ import java.util.List;
 public class Lox {
 
     /**
-     * Error property to be set to true when there is an error in the Lox code.
+     * The options of the interpreter, set from the command line.
      */
-    private static boolean error;
+    private static final LoxOptions options = new LoxOptions();
 
     /**
-     * Reports an error by printing it to stderr.
+     * Run the Lox interpreter on a file containing Lox source code.
+     *
+     * @param path The path of the file.
      *
-     * @param line The line number that the error occurred on.
-     * @param message The error message.
+     * @throws IOException If there is an error reading the file.
      */
-    private static void reportCompilationError(int line, String message) {
-        System.err.println(String.format(
-            "[line %d] Compilation Error: %s",
-            line,
-            message
-        ));
-        error = true;
+    private static void runFile(String path) throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(path));
+        OutputSink output = OutputSink.batch();
+        LoxRun run = new LoxRun(options, output);
+        try {
+            run.runScript(bytes);
+            printMemoizationStats(output);
+        } finally {
+            // Keep the output written before a failure
+            output.flush();
+        }
+        if (run.hadError()) {
+            System.exit(BatchRunner.EXIT_ERROR);
+        }
     }
 
     /**
-     * Reports an error by printing it to stderr.
+     * Run the Lox interpreter on many files containing Lox source code, in
+     * the same JVM.
      *
-     * @param line The line number that the error occurred on.
-     * @param message The error message.
+     * @param paths The paths of the files.
      */
-    private static void reportRuntimeError(int line, String message) {
-        System.err.println(String.format(
-            "[line %d] Runtime Error: %s",
-            line,
-            message
-        ));
-        error = true;
+    private static void runFiles(List<String> paths) {
+        OutputSink output = OutputSink.batch();
+        int status;
+        try {
+            status = new BatchRunner(options).run(paths, output);
+            printMemoizationStats(output);
+        } finally {
+            // Keep the output of the scripts that ran
+            output.flush();
+        }
+        if (status != BatchRunner.EXIT_SUCCESS) {
+            System.exit(status);
+        }
     }
 
     /**
-     * Report an error.
+     * Run the Lox interpreter on every line of the standard input, in
+     * parallel.
      *
-     * @param line The line number that the error occurred on.
-     * @param message The error message.
+     * @throws IOException If there is an error reading the standard input.
      */
-    private static void error(int line, String message) {
-        reportCompilationError(line, message);
-    }
-
-    private static void error(LoxParseException parseException) {
-        reportCompilationError(
-            parseException.getToken().getLineNumber(),
-            parseException.getMessage()
-        );
+    private static void runStream() throws IOException {
+        OutputSink output = OutputSink.batch();
+        int status;
+        try {
+            status = new StreamRunner(options).run(
+                new InputStreamReader(System.in, Charset.defaultCharset()),
+                output
+            );
+            printMemoizationStats(output);
+        } finally {
+            // Keep the output of the lines that ran
+            output.flush();
+        }
+        if (status != BatchRunner.EXIT_SUCCESS) {
+            System.exit(status);
+        }
     }
 
-    private static void error(LoxRuntimeException interpreterException) {
-        reportRuntimeError(
-            interpreterException.getToken().getLineNumber(),
-            interpreterException.getMessage()
-        );
+    /**
+     * Run the Lox interpreter on a file containing Lox source code, and again
+     * every time it changes, until the process is killed.
+     *
+     * @param path The path of the file.
+     *
+     * @throws IOException If the directory of the file cannot be watched.
+     */
+    private static void runWatch(String path) throws IOException {
+        new ScriptWatcher(options).watch(Paths.get(path), OutputSink.interactive());
     }
 
     /**
-     * Run the Lox interpreter on a string of Lox source code.
+     * Serve the scripts sent by clients on a Unix domain socket, until the
+     * process is killed.
+     *
+     * @param socket The path of the socket.
      *
-     * @param source Some Lox source code.
+     * @throws IOException If the socket cannot be listened on.
      */
-    private static void run(String source) {
-        Lexer lexer = new Lexer(source);
-        List<Token> tokens = lexer.lexAllTokens();
-        Parser parser = new Parser(tokens);
-
-        try {
-            Expr expression = parser.parse();
-            if (expression != null) {
-//                System.out.println(new AstPrinterVisitor().print(expression));
-                System.out.println(new AstTreePrinterVisitor().print(expression));
-                Interpreter interpreter = new Interpreter();
-                interpreter.interpret(expression);
-            } else {
-                System.out.println("ERROR");
-                for (Token token : tokens) {
-                    System.out.println(token);
-                }
-            }
-        } catch (LoxParseException e) {
-            error(e);
-        } catch (LoxRuntimeException e) {
-            error(e);
-        }
+    private static void runServer(String socket) throws IOException {
+        new LoxServer(options, Paths.get(socket)).serve();
     }
 
     /**
-     * Run the Lox interpreter on a file containing Lox source code.
+     * Have the server listening on a Unix domain socket run a script, or the
+     * standard input if there is no script.
      *
-     * @param path The path of the file.
-     *
-     * @throws IOException If there is an error reading the file.
+     * @param socket The path of the socket.
+     * @param path The path of the script, or {@code null}.
      */
-    private static void runFile(String path) throws IOException {
-        byte[] bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
-        if (error) {
-            System.exit(65);
+    private static void runClient(String socket, String path) {
+        OutputSink output = OutputSink.batch();
+        int status;
+        try {
+            byte[] bytes = path == null
+                ? System.in.readAllBytes()
+                : Files.readAllBytes(Paths.get(path));
+            status = new LoxClient(Paths.get(socket)).run(bytes, output);
+        } catch (IOException exception) {
+            output.diagnostic(
+                "Could not run the script on " + socket + ": " + exception
+            );
+            status = BatchRunner.EXIT_IO_ERROR;
+        }
+        output.flush();
+        if (status != BatchRunner.EXIT_SUCCESS) {
+            System.exit(status);
         }
     }
 
@@ -132,17 +151,87 @@ public class Lox {
      * @throws IOException If there is an error reading user input.
      */
     private static void runPrompt() throws IOException {
+        OutputSink output = OutputSink.interactive();
+        LoxRun run = new LoxRun(options, output);
+        handleInterrupts(run);
+
+        ReplSession session = new ReplSession(run);
+        if (System.console() != null) {
+            // Only worth it when someone is typing, not for piped input
+            ReplSession.warmUp();
+        }
+
         InputStreamReader input = new InputStreamReader(System.in);
         BufferedReader reader = new BufferedReader(input);
 
         while (true) {
-            System.out.println("Lox > ");
+            output.result(session.prompt());
             String line = reader.readLine();
             if (line == null) {
+                session.finish();
                 break;
             }
-            run(line);
-            error = false;
+            session.read(line);
+            run.clearError();
+        }
+        printMemoizationStats(output);
+    }
+
+    /**
+     * Makes Ctrl-C cancel the running evaluation instead of exiting, if an
+     * evaluation is running.
+     * <p>
+     * The JDK has no supported API to handle signals, so the handler is
+     * installed through {@code sun.misc.Signal}, which is loaded reflectively
+     * so that the build does not depend on an internal API.
+     *
+     * @param run The run whose evaluations are cancelled.
+     */
+    private static void handleInterrupts(LoxRun run) {
+        try {
+            Class<?> signalClass = Class.forName("sun.misc.Signal");
+            Class<?> handlerClass = Class.forName("sun.misc.SignalHandler");
+            Object handler = Proxy.newProxyInstance(
+                handlerClass.getClassLoader(),
+                new Class<?>[] { handlerClass },
+                (proxy, method, arguments) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        // equals, hashCode and toString of the handler
+                        return method.getName().equals("equals")
+                            ? proxy == arguments[0]
+                            : method.getName().equals("hashCode")
+                                ? System.identityHashCode(proxy)
+                                : "Ctrl-C handler";
+                    }
+                    if (!run.cancel()) {
+                        System.exit(130);
+                    }
+                    return null;
+                }
+            );
+            signalClass.getMethod("handle", signalClass, handlerClass).invoke(
+                null,
+                signalClass.getConstructor(String.class).newInstance("INT"),
+                handler
+            );
+        } catch (ReflectiveOperationException | IllegalArgumentException exception) {
+            // Interrupts cannot be handled on this platform, so Ctrl-C exits
+        }
+    }
+
+    /**
+     * Writes the statistics of the memoization cache as a diagnostic, if
+     * memoization is enabled.
+     *
+     * @param output The sink the statistics are written to.
+     */
+    private static void printMemoizationStats(OutputSink output) {
+        MemoizingInterpreter memoizingInterpreter =
+            options.getMemoizingInterpreter();
+        if (memoizingInterpreter != null) {
+            output.diagnostic(
+                "Memoization cache: " + memoizingInterpreter.getCacheStatistics()
+            );
         }
     }
 
@@ -152,14 +241,145 @@ public class Lox {
      * @param args Command line arguments.
      */
     public static void main(String[] args) throws IOException {
-        if (args.length > 1) {
-            System.out.println("Usage: jlox [script]");
-            System.exit(64);
-        } else if (args.length == 1) {
-            runFile(args[0]);
+        List<String> scripts = new ArrayList<>();
+        boolean batch = false;
+        boolean stream = false;
+        boolean watch = false;
+        String server = null;
+        String client = null;
+        for (String arg : args) {
+            if (arg.equals("--print-ast")) {
+                options.setPrintAst(true);
+            } else if (arg.equals("--optimizer-stats")) {
+                options.setOptimizerStats(true);
+            } else if (arg.equals("--memoize")) {
+                options.setMemoizingInterpreter(new MemoizingInterpreter());
+            } else if (arg.equals("--parallel")) {
+                options.setParallelInterpreter(new ParallelInterpreter());
+            } else if (arg.equals("--stream")) {
+                stream = true;
+            } else if (arg.equals("--watch")) {
+                watch = true;
+            } else if (arg.equals("--debug")) {
+                DebugMode.enable();
+            } else if (arg.startsWith("--compile-cache=")) {
+                options.setCompileCache(new CompileCache(
+                    Paths.get(arg.substring("--compile-cache=".length()))
+                ));
+            } else if (arg.startsWith("--max-steps=")) {
+                options.setStepBudget(parsePositive(
+                    arg.substring("--max-steps=".length())
+                ));
+            } else if (arg.startsWith("--jobs=")) {
+                options.setJobs((int) Math.min(
+                    Integer.MAX_VALUE,
+                    parsePositive(arg.substring("--jobs=".length()))
+                ));
+            } else if (arg.startsWith("--server=")) {
+                server = arg.substring("--server=".length());
+            } else if (arg.startsWith("--client=")) {
+                client = arg.substring("--client=".length());
+            } else if (arg.startsWith("--batch=")) {
+                batch = true;
+                scripts.addAll(readScriptList(
+                    arg.substring("--batch=".length())
+                ));
+            } else if (arg.startsWith("--")) {
+                usage();
+            } else {
+                scripts.add(arg);
+            }
+        }
+
+        if (options.getMemoizingInterpreter() != null
+            && options.getParallelInterpreter() != null) {
+            usage();
+        }
+
+        if (server != null) {
+            if (client != null || stream || watch || batch || !scripts.isEmpty()) {
+                usage();
+            }
+            runServer(server);
+        } else if (watch) {
+            if (client != null || stream || batch || scripts.size() != 1) {
+                usage();
+            }
+            runWatch(scripts.get(0));
+        } else if (client != null) {
+            if (stream || batch || scripts.size() > 1) {
+                usage();
+            }
+            runClient(client, scripts.isEmpty() ? null : scripts.get(0));
+        } else if (stream) {
+            if (batch || !scripts.isEmpty()) {
+                usage();
+            }
+            runStream();
+        } else if (batch || scripts.size() > 1) {
+            runFiles(scripts);
+        } else if (scripts.size() == 1) {
+            runFile(scripts.get(0));
         } else {
             runPrompt();
         }
     }
 
+    /**
+     * Reads the paths of the scripts listed in a file, one per line. Blank
+     * lines are skipped.
+     *
+     * @param path The path of the file.
+     *
+     * @return The paths of the scripts.
+     *
+     * @throws IOException If there is an error reading the file.
+     */
+    private static List<String> readScriptList(String path) throws IOException {
+        List<String> scripts = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path), Charset.defaultCharset())) {
+            if (!line.isBlank()) {
+                scripts.add(line.strip());
+            }
+        }
+        return scripts;
+    }
+
+    /**
+     * Parses the value of a numeric option, printing the usage and exiting if
+     * it is not a positive number.
+     *
+     * @param value The value of the option.
+     *
+     * @return The number.
+     */
+    private static long parsePositive(String value) {
+        try {
+            long number = Long.parseLong(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException exception) {
+            // Reported below
+        }
+        usage();
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Prints the usage of the Lox interpreter and exits.
+     */
+    private static void usage() {
+        System.out.println(
+            "Usage: jlox [--print-ast] [--optimizer-stats] [--memoize | --parallel] "
+                + "[--max-steps=<steps>] [--compile-cache=<directory>] "
+                + "[--jobs=<jobs>] [--batch=<list file> | --stream] "
+                + "[--debug] [script...]\n"
+                + "       jlox [options] --watch script\n"
+                + "       jlox [options] --server=<socket>\n"
+                + "       jlox --client=<socket> [script]"
+        );
+        System.exit(64);
+    }
+
 }
@@ -0,0 +1,82 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.OutputSink;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A thin client of a {@link LoxServer}, which sends it a script and writes
+ * the output of the script as it is streamed back.
+ */
+class LoxClient {
+
+    /**
+     * The path of the socket of the server.
+     */
+    private final Path socket;
+
+    LoxClient(Path socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * Has the server run a script, and writes its output.
+     *
+     * @param script The contents of the script.
+     * @param output The sink the output of the script is written to.
+     *
+     * @return The exit status of the script.
+     *
+     * @throws IOException If the server cannot be reached, or the connection
+     *                     is closed before the script ends.
+     */
+    int run(byte[] script, OutputSink output) throws IOException {
+        try (SocketChannel connection = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            connection.connect(UnixDomainSocketAddress.of(this.socket));
+
+            DataOutputStream out = new DataOutputStream(
+                Channels.newOutputStream(connection)
+            );
+            out.writeInt(script.length);
+            out.write(script);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(connection))
+            );
+            while (true) {
+                byte kind = in.readByte();
+                if (kind == LoxServer.EXIT) {
+                    return in.readInt();
+                }
+                int length = in.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                String line = new String(bytes, StandardCharsets.UTF_8);
+                if (kind == LoxServer.RESULT) {
+                    output.result(line);
+                } else if (kind == LoxServer.DIAGNOSTIC) {
+                    output.diagnostic(line);
+                } else {
+                    throw new IOException("Unknown frame " + kind);
+                }
+            }
+        } catch (EOFException exception) {
+            throw new IOException("The server closed the connection", exception);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.output.RecordingOutputSink;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Lox interpreter, to be embedded in other programs.
+ * <p>
+ * An engine has no mutable state: every call compiles or runs on its own
+ * {@link LoxRun}, recording its output instead of writing it to the standard
+ * streams, and returns it as a value. An engine can therefore be called from
+ * any number of threads at the same time, and a {@link LoxProgram} compiled
+ * once can be run by all of them.
+ * <p>
+ * <pre>{@code
+ * LoxEngine engine = new LoxEngine();
+ * LoxProgram program = engine.compile("(1 + 2) * 3");
+ * LoxResult result = engine.run(program);
+ * result.getResults(); // ["9"]
+ * result.getValue(); // 9.0
+ * }</pre>
+ */
+public class LoxEngine {
+
+    private final LoxOptions options = new LoxOptions();
+
+    /**
+     * Creates an engine whose evaluations are not limited.
+     */
+    public LoxEngine() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates an engine whose evaluations are limited to a number of steps,
+     * past which they fail with a runtime error.
+     *
+     * @param stepBudget The maximum number of steps of each evaluation.
+     *
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public LoxEngine(long stepBudget) {
+        if (stepBudget <= 0) {
+            throw new IllegalArgumentException(
+                "Step budget must be positive: " + stepBudget
+            );
+        }
+        this.options.setStepBudget(stepBudget);
+    }
+
+    /**
+     * Compiles Lox source code: lexes, parses, optimizes and checks it.
+     *
+     * @param source Some Lox source code.
+     *
+     * @return The compiled program, holding the diagnostics of the source
+     *         if it cannot be lexed, parsed or checked.
+     */
+    public LoxProgram compile(String source) {
+        RecordingOutputSink output = new RecordingOutputSink();
+        LoxRun run = new LoxRun(this.options, output);
+        Expr expression = run.parse(new Lexer(source));
+        if (expression != null) {
+            expression = run.check(expression);
+        }
+        return new LoxProgram(
+            expression,
+            output.getResults(),
+            output.getDiagnostics(),
+            run.hadError()
+        );
+    }
+
+    /**
+     * Runs a compiled program.
+     *
+     * @param program The program.
+     *
+     * @return The output of the run, starting with the output of the
+     *         compilation.
+     */
+    public LoxResult run(LoxProgram program) {
+        return this.run(program, Map.of());
+    }
+
+    /**
+     * Runs a compiled program with values bound to its variables.
+     *
+     * @param program The program.
+     * @param bindings The values bound to the variables, by name:
+     *                 {@link Number}s, which are bound as {@link Double}s,
+     *                 {@link CharSequence}s, which are bound as
+     *                 {@link String}s, {@link Boolean}s or {@code null}.
+     *
+     * @return The output of the run, starting with the output of the
+     *         compilation.
+     *
+     * @throws IllegalArgumentException If a value is of another type.
+     */
+    public LoxResult run(LoxProgram program, Map<String, Object> bindings) {
+        Map<String, Object> variables = toLoxValues(bindings);
+        RecordingOutputSink output = new RecordingOutputSink();
+        for (String line : program.getResults()) {
+            output.result(line);
+        }
+        for (String line : program.getDiagnostics()) {
+            output.diagnostic(line);
+        }
+
+        LoxRun run = new LoxRun(this.options, output);
+        Expr expression = program.getExpression();
+        Object value = null;
+        if (expression != null) {
+            value = run.evaluate(expression, variables);
+        }
+        return new LoxResult(
+            output.getResults(),
+            output.getDiagnostics(),
+            value,
+            program.hasError() || run.hadError()
+        );
+    }
+
+    /**
+     * Converts the values bound to variables to the values of the
+     * interpreter.
+     *
+     * @param bindings The values bound to the variables, by name.
+     *
+     * @return The converted values, by name.
+     *
+     * @throws IllegalArgumentException If a value cannot be converted.
+     */
+    private static Map<String, Object> toLoxValues(Map<String, Object> bindings) {
+        Map<String, Object> variables = new HashMap<>(bindings.size() * 2);
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            Object value = binding.getValue();
+            if (value instanceof Number number) {
+                variables.put(binding.getKey(), number.doubleValue());
+            } else if (value instanceof CharSequence string) {
+                variables.put(binding.getKey(), string.toString());
+            } else if (value == null || value instanceof Boolean) {
+                variables.put(binding.getKey(), value);
+            } else {
+                throw new IllegalArgumentException(
+                    "Cannot bind " + binding.getKey() + " to a "
+                        + value.getClass().getName()
+                );
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Compiles and runs Lox source code.
+     *
+     * @param source Some Lox source code.
+     *
+     * @return The output of the run.
+     */
+    public LoxResult run(String source) {
+        return this.run(this.compile(source));
+    }
+
+}
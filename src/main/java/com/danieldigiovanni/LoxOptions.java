@@ -0,0 +1,62 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.cache.CompileCache;
+import com.danieldigiovanni.interpreter.MemoizingInterpreter;
+import com.danieldigiovanni.interpreter.ParallelInterpreter;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The options of the Lox interpreter, set from the command line and shared by
+ * every run.
+ */
+@Getter
+@Setter
+class LoxOptions {
+
+    /**
+     * Whether the abstract syntax tree of each expression should be drawn
+     * before it is evaluated, set with the {@code --print-ast} option.
+     */
+    private boolean printAst = false;
+
+    /**
+     * Whether the report of each optimization pass should be written as a
+     * diagnostic, set with the {@code --optimizer-stats} option.
+     */
+    private boolean optimizerStats = false;
+
+    /**
+     * The evaluator that caches the results of subtrees across runs, set with
+     * the {@code --memoize} option, or {@code null} to evaluate every
+     * expression from scratch.
+     */
+    private MemoizingInterpreter memoizingInterpreter = null;
+
+    /**
+     * The evaluator that evaluates large independent subtrees in parallel,
+     * set with the {@code --parallel} option, or {@code null} to evaluate
+     * every expression on the thread running it.
+     */
+    private ParallelInterpreter parallelInterpreter = null;
+
+    /**
+     * The cache of the expressions parsed from script files, set with the
+     * {@code --compile-cache=<directory>} option, or {@code null} to parse
+     * every script.
+     */
+    private CompileCache compileCache = null;
+
+    /**
+     * The maximum number of steps of each evaluation, set with the
+     * {@code --max-steps=<steps>} option.
+     */
+    private long stepBudget = Long.MAX_VALUE;
+
+    /**
+     * The number of scripts run at the same time in batch mode, set with the
+     * {@code --jobs=<jobs>} option.
+     */
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
+}
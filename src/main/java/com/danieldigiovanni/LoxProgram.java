@@ -0,0 +1,68 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.expr.Expr;
+
+import java.util.List;
+
+/**
+ * A Lox program compiled by a {@link LoxEngine}: its parsed, optimized and
+ * checked expression, and the output of its compilation.
+ * <p>
+ * A program is immutable, so it can be compiled once and run any number of
+ * times, from any number of threads at the same time.
+ */
+public final class LoxProgram {
+
+    /**
+     * The checked expression, or {@code null} if the program could not be
+     * compiled.
+     */
+    private final Expr expression;
+
+    /**
+     * The results written while compiling the program.
+     */
+    private final List<String> results;
+
+    /**
+     * The diagnostics written while compiling the program.
+     */
+    private final List<String> diagnostics;
+
+    /**
+     * Whether there was an error in the program.
+     */
+    private final boolean error;
+
+    LoxProgram(Expr expression, List<String> results, List<String> diagnostics, boolean error) {
+        this.expression = expression;
+        this.results = List.copyOf(results);
+        this.diagnostics = List.copyOf(diagnostics);
+        this.error = error;
+    }
+
+    /**
+     * @return {@code true} if the program could not be compiled, in which
+     *         case running it only reports its errors, {@code false}
+     *         otherwise.
+     */
+    public boolean hasError() {
+        return this.error;
+    }
+
+    /**
+     * @return The diagnostics written while compiling the program.
+     */
+    public List<String> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    Expr getExpression() {
+        return this.expression;
+    }
+
+    List<String> getResults() {
+        return this.results;
+    }
+
+}
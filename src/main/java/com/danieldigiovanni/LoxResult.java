@@ -0,0 +1,71 @@
+package com.danieldigiovanni;
+
+import java.util.List;
+
+/**
+ * The output of a run of a {@link LoxProgram}: the lines it would have
+ * written to the standard output and to the standard error, the value of the
+ * program, and whether there was an error.
+ */
+public final class LoxResult {
+
+    private final List<String> results;
+
+    private final List<String> diagnostics;
+
+    private final Object value;
+
+    private final boolean error;
+
+    LoxResult(
+        List<String> results,
+        List<String> diagnostics,
+        Object value,
+        boolean error
+    ) {
+        this.results = List.copyOf(results);
+        this.diagnostics = List.copyOf(diagnostics);
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * @return The results of the run, in order.
+     */
+    public List<String> getResults() {
+        return this.results;
+    }
+
+    /**
+     * @return The diagnostics of the run, in order: the errors in the
+     *         program, and the reports asked for by the options.
+     */
+    public List<String> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    /**
+     * @return The value of the program: a {@link Double}, a {@link String}, a
+     *         {@link Boolean}, or {@code null} if it is {@code nil} or there
+     *         was an error.
+     */
+    public Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * @return {@code true} if there was a compilation or runtime error,
+     *         {@code false} otherwise.
+     */
+    public boolean hasError() {
+        return this.error;
+    }
+
+    /**
+     * @return The exit status of the command line interpreter for this run.
+     */
+    public int getExitStatus() {
+        return this.error ? BatchRunner.EXIT_ERROR : BatchRunner.EXIT_SUCCESS;
+    }
+
+}
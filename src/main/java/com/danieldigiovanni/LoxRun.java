@@ -0,0 +1,345 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.cache.CompileCache;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.visitor.AstTreePrinterVisitor;
+import com.danieldigiovanni.interpreter.CancellationToken;
+import com.danieldigiovanni.interpreter.EvaluationLimits;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.interpreter.MemoizingInterpreter;
+import com.danieldigiovanni.interpreter.ParallelInterpreter;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.lexer.exception.LoxSyntaxException;
+import com.danieldigiovanni.optimizer.PassManager;
+import com.danieldigiovanni.optimizer.PassReport;
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.parser.Parser;
+import com.danieldigiovanni.parser.exception.LoxParseException;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.typechecker.TypeChecker;
+
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A run of the Lox interpreter: on a script, or on the inputs of a REPL
+ * session.
+ * <p>
+ * A run writes to its own output sink and tracks its own errors, so that
+ * runs on different threads do not interfere with each other.
+ */
+class LoxRun {
+
+    /**
+     * The options of the interpreter.
+     */
+    private final LoxOptions options;
+
+    /**
+     * The sink of the results and diagnostics of this run.
+     */
+    private final OutputSink output;
+
+    /**
+     * Set to true when there is an error in the Lox code.
+     */
+    private boolean error = false;
+
+    /**
+     * The token to cancel the evaluation that is running (including the
+     * constant folding of an expression), or {@code null} if no evaluation is
+     * running.
+     */
+    private volatile CancellationToken runningEvaluation = null;
+
+    LoxRun(LoxOptions options, OutputSink output) {
+        this.options = options;
+        this.output = output;
+    }
+
+    /**
+     * @return {@code true} if there was an error in the Lox code since the
+     *         start of the run or the last call to {@link #clearError()},
+     *         {@code false} otherwise.
+     */
+    boolean hadError() {
+        return this.error;
+    }
+
+    /**
+     * Forgets the errors reported so far.
+     */
+    void clearError() {
+        this.error = false;
+    }
+
+    /**
+     * Cancels the evaluation that is running, if any. This can be called
+     * from any thread.
+     *
+     * @return {@code true} if an evaluation was running, {@code false}
+     *         otherwise.
+     */
+    boolean cancel() {
+        CancellationToken cancellation = this.runningEvaluation;
+        if (cancellation == null) {
+            return false;
+        }
+        cancellation.cancel();
+        return true;
+    }
+
+    /**
+     * Reports an error by writing it as a diagnostic.
+     *
+     * @param line The line number that the error occurred on.
+     * @param message The error message.
+     */
+    private void reportCompilationError(int line, String message) {
+        this.output.diagnostic("[line " + line + "] Compilation Error: " + message);
+        this.error = true;
+    }
+
+    /**
+     * Reports an error by writing it as a diagnostic.
+     *
+     * @param line The line number that the error occurred on.
+     * @param message The error message.
+     */
+    private void reportRuntimeError(int line, String message) {
+        this.output.diagnostic("[line " + line + "] Runtime Error: " + message);
+        this.error = true;
+    }
+
+    private void error(LoxParseException parseException) {
+        this.reportCompilationError(
+            parseException.getToken().getLineNumber(),
+            parseException.getMessage()
+        );
+    }
+
+    private void error(LoxRuntimeException interpreterException) {
+        this.reportRuntimeError(
+            interpreterException.getToken().getLineNumber(),
+            interpreterException.getMessage()
+        );
+    }
+
+    /**
+     * Run the Lox interpreter on the contents of a script file, through the
+     * compile cache if there is one.
+     *
+     * @param bytes The contents of the script file.
+     */
+    void runScript(byte[] bytes) {
+        CompileCache compileCache = this.options.getCompileCache();
+        if (compileCache == null) {
+            this.run(new String(bytes, Charset.defaultCharset()));
+            return;
+        }
+
+        Expr expression = compileCache.load(bytes);
+        if (expression == null) {
+            expression = this.parse(
+                new Lexer(new String(bytes, Charset.defaultCharset()))
+            );
+            if (expression != null) {
+                compileCache.store(bytes, expression);
+            }
+        }
+        if (expression != null) {
+            this.run(expression);
+        }
+    }
+
+    /**
+     * Run the Lox interpreter on a string of Lox source code.
+     *
+     * @param source Some Lox source code.
+     */
+    void run(String source) {
+        Expr expression = this.parse(new Lexer(source));
+        if (expression != null) {
+            this.run(expression);
+        }
+    }
+
+    /**
+     * Parse Lox source code.
+     * <p>
+     * If the source cannot be parsed, the error is reported, or the tokens
+     * are printed if there is no error to report.
+     *
+     * @param lexer The lexer of the source code.
+     *
+     * @return The parsed expression, or {@code null} if the source could not
+     *         be parsed.
+     */
+    Expr parse(Lexer lexer) {
+        try {
+            List<Token> tokens = lexer.lexAllTokens();
+            Expr expression = new Parser(tokens).parse();
+            if (expression == null) {
+                this.output.result("ERROR");
+                for (Token token : tokens) {
+                    this.output.result(token.toString());
+                }
+            }
+            return expression;
+        } catch (LoxSyntaxException e) {
+            this.reportCompilationError(e.getLineNumber(), e.getMessage());
+            return null;
+        } catch (LoxParseException e) {
+            this.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * Run the Lox interpreter on a parsed expression.
+     *
+     * @param expression The parsed expression.
+     */
+    void run(Expr expression) {
+        Expr checked = this.check(expression);
+        if (checked != null) {
+            this.evaluate(checked);
+        }
+    }
+
+    /**
+     * Prepare a parsed expression to be evaluated: draw it if asked to,
+     * optimize it and check its types.
+     *
+     * @param expression The parsed expression.
+     *
+     * @return The checked expression, or {@code null} if it has a type
+     *         error or its constant folding was cancelled, which is
+     *         reported.
+     */
+    Expr check(Expr expression) {
+        try {
+            if (this.options.isPrintAst()) {
+                this.output.result(new AstTreePrinterVisitor().print(expression));
+            }
+            CancellationToken cancellation = new CancellationToken();
+            this.runningEvaluation = cancellation;
+            try {
+                expression = this.optimize(
+                    expression,
+                    new EvaluationLimits(this.options.getStepBudget(), cancellation)
+                );
+            } finally {
+                this.runningEvaluation = null;
+            }
+            return new TypeChecker().check(expression);
+        } catch (LoxParseException e) {
+            this.error(e);
+            return null;
+        } catch (LoxRuntimeException e) {
+            this.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * Evaluate a checked expression and write its result.
+     *
+     * @param expression The expression returned by {@link #check(Expr)}.
+     */
+    void evaluate(Expr expression) {
+        this.evaluate(expression, Map.of(), false);
+    }
+
+    /**
+     * Evaluate a checked expression with values bound to its variables, and
+     * write its result.
+     *
+     * @param expression The expression returned by {@link #check(Expr)}.
+     * @param bindings The values bound to the variables, by name.
+     *
+     * @return The value of the expression: a {@link Double}, a
+     *         {@link String}, a {@link Boolean}, or {@code null} if it is
+     *         {@code nil} or there was an error, which is reported.
+     */
+    Object evaluate(Expr expression, Map<String, Object> bindings) {
+        return this.evaluate(expression, bindings, true);
+    }
+
+    /**
+     * Evaluate a checked expression with values bound to its variables, and
+     * write its result.
+     *
+     * @param expression The expression returned by {@link #check(Expr)}.
+     * @param bindings The values bound to the variables, by name.
+     * @param keepValue Whether the value of the expression is returned. If
+     *                  not, numbers are written without being boxed.
+     *
+     * @return The value of the expression if it is kept, or {@code null}.
+     */
+    private Object evaluate(
+        Expr expression,
+        Map<String, Object> bindings,
+        boolean keepValue
+    ) {
+        try {
+            CancellationToken cancellation = new CancellationToken();
+            EvaluationLimits limits =
+                new EvaluationLimits(this.options.getStepBudget(), cancellation);
+            MemoizingInterpreter memoizingInterpreter =
+                this.options.getMemoizingInterpreter();
+            ParallelInterpreter parallelInterpreter =
+                this.options.getParallelInterpreter();
+            this.runningEvaluation = cancellation;
+            Object value;
+            try {
+                if (memoizingInterpreter != null) {
+                    value = memoizingInterpreter.evaluate(expression, bindings, limits);
+                } else if (parallelInterpreter != null) {
+                    value = parallelInterpreter.evaluate(expression, bindings, limits);
+                } else if (keepValue) {
+                    value = new Interpreter(bindings, limits).evaluate(expression);
+                } else {
+                    new Interpreter(bindings, limits).interpret(expression, this.output);
+                    return null;
+                }
+            } finally {
+                this.runningEvaluation = null;
+            }
+            this.output.result(Interpreter.stringify(value));
+            // Concatenations produce ropes
+            return value instanceof CharSequence string ? string.toString() : value;
+        } catch (LoxParseException e) {
+            this.error(e);
+        } catch (LoxRuntimeException e) {
+            this.error(e);
+        }
+        return null;
+    }
+
+    /**
+     * Run the default optimization passes on an expression, but constant
+     * folding if the results are memoized, since memoizing a folded
+     * expression would only ever cache its literal.
+     *
+     * @param expression The expression to be optimized.
+     * @param limits The limits on the evaluation of constant subtrees.
+     *
+     * @return The optimized expression.
+     */
+    private Expr optimize(Expr expression, EvaluationLimits limits) {
+        PassManager passManager = this.options.getMemoizingInterpreter() == null
+            ? PassManager.defaultPipeline(limits)
+            : PassManager.memoizingPipeline();
+        Expr optimized = passManager.optimize(expression);
+        if (this.options.isOptimizerStats()) {
+            for (PassReport report : passManager.getReports()) {
+                this.output.diagnostic(report.toString());
+            }
+        }
+        return optimized;
+    }
+
+}
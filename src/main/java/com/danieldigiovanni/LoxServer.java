@@ -0,0 +1,231 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.OutputSink;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived Lox interpreter that runs the scripts sent by
+ * {@link LoxClient}s over a Unix domain socket, so that they do not pay for
+ * the startup and the warm-up of a JVM.
+ * <p>
+ * Every connection carries one request: the length of a script followed by
+ * its bytes. The server runs the script on its own {@link LoxRun}, and
+ * streams back its output as frames: a kind byte, {@link #RESULT} or
+ * {@link #DIAGNOSTIC} followed by the length and the UTF-8 bytes of a line,
+ * or {@link #EXIT} followed by the exit status of the script, which ends the
+ * response.
+ * <p>
+ * Requests are served concurrently by a pool of worker threads. A client
+ * that does not send its whole request within {@link #REQUEST_TIMEOUT_SECONDS}
+ * is disconnected, so that idle clients cannot hold every worker.
+ */
+class LoxServer {
+
+    /**
+     * The kind of a frame holding a line of result.
+     */
+    static final byte RESULT = 'O';
+
+    /**
+     * The kind of a frame holding a line of diagnostic.
+     */
+    static final byte DIAGNOSTIC = 'E';
+
+    /**
+     * The kind of the frame holding the exit status of the script.
+     */
+    static final byte EXIT = 'X';
+
+    /**
+     * The largest script accepted, in bytes.
+     */
+    static final int MAX_SCRIPT_SIZE = 1 << 28;
+
+    /**
+     * How long a client has to send its request, in seconds.
+     */
+    static final long REQUEST_TIMEOUT_SECONDS = 10;
+
+    private final LoxOptions options;
+
+    /**
+     * The path of the socket.
+     */
+    private final Path socket;
+
+    /**
+     * The timer closing the connections whose request is late.
+     */
+    private final ScheduledExecutorService deadlines =
+        Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "jlox-server-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    LoxServer(LoxOptions options, Path socket) {
+        this.options = options;
+        this.socket = socket;
+    }
+
+    /**
+     * Listens on the socket and serves requests, until the JVM exits. The
+     * socket is deleted when it does.
+     *
+     * @throws IOException If the socket cannot be listened on.
+     */
+    void serve() throws IOException {
+        // A socket left behind by a server that was killed
+        Files.deleteIfExists(this.socket);
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Math.max(1, this.options.getJobs()),
+            task -> {
+                Thread thread = new Thread(task, "jlox-server-worker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(this.socket));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(this.socket);
+                } catch (IOException exception) {
+                    // Deleted by the next server
+                }
+            }));
+            ReplSession.warmUp();
+
+            while (true) {
+                SocketChannel connection = server.accept();
+                pool.execute(() -> this.serve(connection));
+            }
+        } finally {
+            pool.shutdownNow();
+            this.deadlines.shutdownNow();
+        }
+    }
+
+    /**
+     * Serves the request of a connection, and closes it.
+     *
+     * @param connection The connection.
+     */
+    private void serve(SocketChannel connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(connection))
+            );
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(connection))
+            );
+
+            // Closing the connection makes the blocked read fail
+            ScheduledFuture<?> deadline = this.deadlines.schedule(
+                () -> close(connection),
+                REQUEST_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS
+            );
+            byte[] script;
+            try {
+                int size = in.readInt();
+                if (size < 0 || size > MAX_SCRIPT_SIZE) {
+                    return;
+                }
+                script = in.readNBytes(size);
+                if (script.length != size) {
+                    return;
+                }
+            } finally {
+                deadline.cancel(false);
+            }
+
+            LoxRun run = new LoxRun(this.options, new FrameOutputSink(out));
+            run.runScript(script);
+
+            out.writeByte(EXIT);
+            out.writeInt(run.hadError() ? BatchRunner.EXIT_ERROR : BatchRunner.EXIT_SUCCESS);
+            out.flush();
+        } catch (IOException | UncheckedIOException exception) {
+            // The client went away, there is no one to report it to
+        }
+    }
+
+    private static void close(SocketChannel connection) {
+        try {
+            connection.close();
+        } catch (IOException exception) {
+            // Closed anyway
+        }
+    }
+
+    /**
+     * An output sink that writes every line as a frame of the response.
+     */
+    private static class FrameOutputSink implements OutputSink {
+
+        private final DataOutputStream out;
+
+        private FrameOutputSink(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void result(CharSequence line) {
+            this.frame(RESULT, line);
+        }
+
+        @Override
+        public void diagnostic(CharSequence line) {
+            this.frame(DIAGNOSTIC, line);
+        }
+
+        @Override
+        public void flush() {
+            try {
+                this.out.flush();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        public void close() {
+            this.flush();
+        }
+
+        private void frame(byte kind, CharSequence line) {
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                this.out.writeByte(kind);
+                this.out.writeInt(bytes.length);
+                this.out.write(bytes);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+    }
+
+}
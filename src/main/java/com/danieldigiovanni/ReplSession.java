@@ -0,0 +1,238 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.cache.LruCache;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.optimizer.PassManager;
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.parser.Parser;
+import com.danieldigiovanni.parser.exception.LoxParseException;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.typechecker.TypeChecker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A session of the interactive Lox interpreter, which keeps its state warm
+ * from one input to the next.
+ * <p>
+ * The session reuses one list of tokens for every input, and caches the
+ * expressions parsed from the most recent inputs, so an input that was
+ * already entered is neither lexed nor parsed again. An input spans several
+ * lines while its parentheses are not balanced or a string is not closed.
+ * <p>
+ * When the session starts, a background thread runs the whole pipeline on a
+ * few expressions, so that it is compiled by the JIT before the first inputs
+ * rather than while they are run.
+ */
+class ReplSession {
+
+    /**
+     * The prompt of the first line of an input.
+     */
+    static final String PROMPT = "Lox > ";
+
+    /**
+     * The prompt of the next lines of an input.
+     */
+    static final String CONTINUATION_PROMPT = "... > ";
+
+    /**
+     * The maximum number of parsed inputs cached.
+     */
+    private static final int PARSE_CACHE_CAPACITY = 256;
+
+    /**
+     * The expressions run by the warm-up thread.
+     */
+    private static final String[] WARM_UP_SOURCES = {
+        "(1 + 2) * 3 - 4 / 5",
+        "-(0.5 * 3) < 2 and !(1 == 2) or nil",
+        "\"a\" + \"b\" == \"ab\"",
+        "1 + \"a\"",
+        "(1",
+    };
+
+    /**
+     * The number of times each warm-up expression is run.
+     */
+    private static final int WARM_UP_ITERATIONS = 2_000;
+
+    /**
+     * A sink that discards everything written to it.
+     */
+    private static final OutputSink DISCARD = new OutputSink() {
+
+        @Override
+        public void result(CharSequence line) {
+        }
+
+        @Override
+        public void diagnostic(CharSequence line) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    };
+
+    /**
+     * The run the inputs are run on.
+     */
+    private final LoxRun run;
+
+    /**
+     * The list the tokens of every input are lexed into.
+     */
+    private final List<Token> tokens = new ArrayList<>();
+
+    /**
+     * The expressions parsed from the most recent inputs, by source.
+     */
+    private final LruCache<String, Expr> expressions =
+        new LruCache<>(PARSE_CACHE_CAPACITY);
+
+    /**
+     * The lines of the input being entered, if it spans several lines.
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * The number of parentheses opened and not closed yet in the input being
+     * entered.
+     */
+    private int depth = 0;
+
+    /**
+     * Whether a string is open at the end of the input being entered.
+     */
+    private boolean inString = false;
+
+    ReplSession(LoxRun run) {
+        this.run = run;
+    }
+
+    /**
+     * Starts warming up the pipeline in the background.
+     */
+    static void warmUp() {
+        Thread thread = new Thread(ReplSession::runWarmUp, "jlox-warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * @return The prompt of the next line: {@link #CONTINUATION_PROMPT} if an
+     *         input is being entered, {@link #PROMPT} otherwise.
+     */
+    String prompt() {
+        return this.pending.isEmpty() ? PROMPT : CONTINUATION_PROMPT;
+    }
+
+    /**
+     * Reads a line of input, and runs the input if it is complete.
+     *
+     * @param line The line, without its line terminator.
+     */
+    void read(String line) {
+        if (!this.pending.isEmpty()) {
+            this.pending.append('\n');
+        }
+        this.pending.append(line);
+        this.scan(line);
+        if (this.depth > 0 || this.inString) {
+            return;
+        }
+
+        String source = this.pending.toString();
+        this.pending.setLength(0);
+        this.depth = 0;
+        this.run(source);
+    }
+
+    /**
+     * Runs the input being entered, if any, even though it is not complete,
+     * so that its errors are reported when the input ends.
+     */
+    void finish() {
+        if (!this.pending.isEmpty()) {
+            String source = this.pending.toString();
+            this.pending.setLength(0);
+            this.depth = 0;
+            this.inString = false;
+            this.run(source);
+        }
+    }
+
+    /**
+     * Runs a complete input.
+     *
+     * @param source The input.
+     */
+    private void run(String source) {
+        Expr expression = this.expressions.get(source);
+        if (expression == null) {
+            expression = this.run.parse(new Lexer(source, this.tokens));
+            if (expression == null) {
+                return;
+            }
+            this.expressions.put(source, expression);
+        }
+        this.run.run(expression);
+    }
+
+    /**
+     * Tracks the parentheses and strings opened and closed by a line.
+     * Comments are skipped, and a closing parenthesis without an opening one
+     * ends the input, since the parser will reject it anyway.
+     *
+     * @param line The line.
+     */
+    private void scan(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (this.inString) {
+                this.inString = c != '"';
+            } else if (c == '"') {
+                this.inString = true;
+            } else if (c == '/' && i + 1 < line.length() && line.charAt(i + 1) == '/') {
+                return;
+            } else if (c == '(') {
+                this.depth++;
+            } else if (c == ')') {
+                this.depth = Math.max(0, this.depth - 1);
+            }
+        }
+    }
+
+    /**
+     * Runs the pipeline on the warm-up expressions, discarding the results
+     * and the errors.
+     */
+    private static void runWarmUp() {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            for (String source : WARM_UP_SOURCES) {
+                try {
+                    Expr expression = new Parser(new Lexer(source).lexAllTokens()).parse();
+                    if (expression != null) {
+                        expression = PassManager.defaultPipeline().optimize(expression);
+                        expression = new TypeChecker().check(expression);
+                        new Interpreter().interpret(expression, DISCARD);
+                    }
+                } catch (LoxParseException | LoxRuntimeException exception) {
+                    // Errors are part of the warm-up
+                }
+            }
+        }
+    }
+
+}
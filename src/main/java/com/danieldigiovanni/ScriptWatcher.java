@@ -0,0 +1,169 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.cache.LruCache;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.token.Token;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a script again every time it changes, in the same JVM.
+ * <p>
+ * The directory of the script is watched with a {@link WatchService}. The
+ * events that follow each other closely, as when an editor saves a file in
+ * several steps, make a single cycle. A cycle does nothing if the contents of
+ * the script did not change. Otherwise, the script is run on a new
+ * {@link LoxRun}, its source being lexed into the same list of tokens every
+ * time, and the trees parsed from its most recent versions are cached, so
+ * undoing a change does not parse the script again. The time taken by each
+ * cycle is written as a diagnostic.
+ */
+class ScriptWatcher {
+
+    /**
+     * The maximum number of parsed versions of the script cached.
+     */
+    private static final int PARSE_CACHE_CAPACITY = 16;
+
+    /**
+     * How long to wait for more events after one, in milliseconds.
+     */
+    private static final long SETTLE_MILLIS = 50;
+
+    private final LoxOptions options;
+
+    /**
+     * The list the tokens of every version are lexed into.
+     */
+    private final List<Token> tokens = new ArrayList<>();
+
+    /**
+     * The expressions parsed from the most recent versions, by source.
+     */
+    private final LruCache<String, Expr> expressions =
+        new LruCache<>(PARSE_CACHE_CAPACITY);
+
+    /**
+     * The contents of the script when it was last run, or {@code null} if it
+     * was never run.
+     */
+    private byte[] lastRun = null;
+
+    ScriptWatcher(LoxOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs a script, then again every time it changes, until the thread is
+     * interrupted.
+     *
+     * @param script The path of the script.
+     * @param output The sink the output of every run is written to.
+     *
+     * @throws IOException If the directory of the script cannot be watched.
+     */
+    void watch(Path script, OutputSink output) throws IOException {
+        Path file = script.toAbsolutePath();
+        Path directory = file.getParent();
+        Path name = file.getFileName();
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            directory.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+            );
+            this.cycle(file, output);
+
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                // Gather the events of a save made in several steps
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= name.equals(event.context())
+                            || event.kind() == StandardWatchEventKinds.OVERFLOW;
+                    }
+                    if (!key.reset()) {
+                        output.diagnostic("[watch] " + directory + " is gone");
+                        output.flush();
+                        return;
+                    }
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    this.cycle(file, output);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the script if it changed since it was last run.
+     *
+     * @param file The path of the script.
+     * @param output The sink the output of the run is written to.
+     */
+    private void cycle(Path file, OutputSink output) {
+        long start = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException exception) {
+            // Being replaced, it is run when it is created again
+            return;
+        } catch (IOException exception) {
+            output.diagnostic("[watch] Could not read " + file + ": " + exception);
+            output.flush();
+            return;
+        }
+        if (Arrays.equals(bytes, this.lastRun)) {
+            return;
+        }
+        this.lastRun = bytes;
+
+        LoxRun run = new LoxRun(this.options, output);
+        String source = new String(bytes, Charset.defaultCharset());
+        Expr expression = this.expressions.get(source);
+        boolean cached = expression != null;
+        if (!cached) {
+            expression = run.parse(new Lexer(source, this.tokens));
+            if (expression != null) {
+                this.expressions.put(source, expression);
+            }
+        }
+        long parsed = System.nanoTime();
+        if (expression != null) {
+            run.run(expression);
+        }
+        long ran = System.nanoTime();
+
+        output.diagnostic(String.format(
+            "[watch] %s: %s in %.3f ms, ran in %.3f ms%s",
+            file.getFileName(),
+            cached ? "reused the parsed tree" : "read and parsed",
+            (parsed - start) / 1e6,
+            (ran - parsed) / 1e6,
+            run.hadError() ? ", with errors" : ""
+        ));
+        output.flush();
+    }
+
+}
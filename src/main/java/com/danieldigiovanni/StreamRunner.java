@@ -0,0 +1,228 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.output.RecordingOutputSink;
+import com.danieldigiovanni.token.Token;
+import lombok.AllArgsConstructor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a stream of independent expressions, one per line, on a bounded pool
+ * of worker threads.
+ * <p>
+ * The input is read in large blocks and split into chunks of lines, each of
+ * which is run by a worker on its own {@link LoxRun}. The output of every
+ * chunk is recorded, and written in the order of the input by a reorder
+ * buffer: the chunks that are running or waiting to be written. The buffer
+ * is bounded, so when it is full, reading the input waits for the oldest
+ * chunk to be written. This keeps the memory used constant however long the
+ * stream is, and however slow some lines are.
+ * <p>
+ * Every line is run like an input of the REPL, blank lines being skipped,
+ * and its diagnostics hold its line number in the input. So that the output
+ * stays aligned with the input, a line that writes no result, because it is
+ * blank or has an error, writes an empty one. A line the interpreter itself
+ * fails on, e.g. because it is nested too deeply, is reported as an error
+ * of that line.
+ */
+class StreamRunner {
+
+    /**
+     * The number of characters read from the input at a time.
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * The number of lines of a chunk, large enough for the cost of handing a
+     * chunk to a worker to be negligible.
+     */
+    private static final int CHUNK_LINES = 1024;
+
+    /**
+     * The number of chunks in the reorder buffer per worker.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final LoxOptions options;
+
+    StreamRunner(LoxOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs every line of an input and writes their output.
+     *
+     * @param input The input.
+     * @param output The sink the output of every line is written to.
+     *
+     * @return {@link BatchRunner#EXIT_ERROR} if there was an error in any
+     *         line, {@link BatchRunner#EXIT_SUCCESS} otherwise.
+     *
+     * @throws IOException If there is an error reading the input.
+     */
+    int run(Reader input, OutputSink output) throws IOException {
+        int workers = Math.max(1, this.options.getJobs());
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "jlox-stream-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int capacity = workers * CHUNKS_PER_WORKER;
+        Deque<Future<ChunkResult>> reorderBuffer = new ArrayDeque<>(capacity);
+        boolean error = false;
+
+        try {
+            char[] block = new char[BLOCK_SIZE];
+            StringBuilder partialLine = new StringBuilder();
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            int firstLine = 1;
+
+            int read;
+            while ((read = input.read(block)) != -1) {
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (block[i] != '\n') {
+                        continue;
+                    }
+                    partialLine.append(block, start, i - start);
+                    addLine(chunk, partialLine);
+                    start = i + 1;
+
+                    if (chunk.size() == CHUNK_LINES) {
+                        if (reorderBuffer.size() == capacity) {
+                            error |= write(reorderBuffer.poll(), output);
+                        }
+                        reorderBuffer.add(this.submit(pool, chunk, firstLine));
+                        chunk = new ArrayList<>(CHUNK_LINES);
+                        firstLine += CHUNK_LINES;
+                    }
+                }
+                partialLine.append(block, start, read - start);
+            }
+            // A last line without a line terminator
+            if (!partialLine.isEmpty()) {
+                addLine(chunk, partialLine);
+            }
+            if (!chunk.isEmpty()) {
+                reorderBuffer.add(this.submit(pool, chunk, firstLine));
+            }
+
+            while (!reorderBuffer.isEmpty()) {
+                error |= write(reorderBuffer.poll(), output);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return error ? BatchRunner.EXIT_ERROR : BatchRunner.EXIT_SUCCESS;
+    }
+
+    /**
+     * Adds a line to a chunk, and clears it.
+     *
+     * @param chunk The chunk.
+     * @param line The line, possibly with a trailing carriage return.
+     */
+    private static void addLine(List<String> chunk, StringBuilder line) {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            length--;
+        }
+        chunk.add(line.substring(0, length));
+        line.setLength(0);
+    }
+
+    /**
+     * Submits a chunk to be run.
+     *
+     * @param pool The pool of workers.
+     * @param chunk The lines of the chunk.
+     * @param firstLine The line number of the first line of the chunk.
+     *
+     * @return The result of the chunk.
+     */
+    private Future<ChunkResult> submit(ExecutorService pool, List<String> chunk, int firstLine) {
+        return pool.submit(() -> {
+            RecordingOutputSink output = new RecordingOutputSink();
+            LoxRun run = new LoxRun(this.options, output);
+            List<Token> tokens = new ArrayList<>();
+            boolean failed = false;
+            for (int i = 0; i < chunk.size(); i++) {
+                String line = chunk.get(i);
+                int results = output.getResults().size();
+                if (!line.isBlank()) {
+                    try {
+                        Expr expression = run.parse(new Lexer(line, tokens, firstLine + i));
+                        if (expression != null) {
+                            run.run(expression);
+                        }
+                    } catch (RuntimeException | Error exception) {
+                        // Every Lox error, lexer errors included, is reported
+                        // by the run, so this is an error in the interpreter
+                        // itself
+                        output.diagnostic(
+                            "[line " + (firstLine + i) + "] Internal Error: " + exception
+                        );
+                        failed = true;
+                    }
+                }
+                if (output.getResults().size() == results) {
+                    output.result("");
+                }
+            }
+            return new ChunkResult(output, failed || run.hadError());
+        });
+    }
+
+    /**
+     * Waits for a chunk to be run, and writes its output.
+     *
+     * @param result The result of the chunk.
+     * @param output The sink the output is written to.
+     *
+     * @return {@code true} if there was an error in any line of the chunk,
+     *         {@code false} otherwise.
+     */
+    private static boolean write(Future<ChunkResult> result, OutputSink output) {
+        ChunkResult chunk;
+        try {
+            chunk = result.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        } catch (ExecutionException exception) {
+            // The errors of every line are reported in the output of the
+            // chunk, so this is an error in the runner itself
+            output.diagnostic("Internal Error: " + exception.getCause());
+            return true;
+        }
+        chunk.output.replay(output);
+        return chunk.error;
+    }
+
+    /**
+     * The output of a chunk, and whether there was an error in any of its
+     * lines.
+     */
+    @AllArgsConstructor
+    private static class ChunkResult {
+
+        private final RecordingOutputSink output;
+
+        private final boolean error;
+
+    }
+
+}
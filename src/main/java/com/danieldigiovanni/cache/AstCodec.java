@@ -0,0 +1,334 @@
+package com.danieldigiovanni.cache;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.StaticType;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format of abstract syntax trees.
+ * <p>
+ * An encoded tree starts with a header: the magic bytes {@code LOXA} and the
+ * version of the format. It is followed by a table of the distinct strings of
+ * the tree (lexemes and string literals), and by the nodes of the tree in
+ * prefix order. Every node is a byte holding its tag and its static type,
+ * followed by its fields, strings being written as indexes into the table.
+ * Integers, including the numbers that are small non-negative integers, are
+ * written as variable-length quantities, so most of them take a single byte.
+ * <p>
+ * This class only contains static methods.
+ */
+public final class AstCodec {
+
+    /**
+     * The version of the format, to be incremented whenever the format or the
+     * trees produced by the parser change, so that trees encoded by an older
+     * version are never decoded.
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = { 'L', 'O', 'X', 'A' };
+
+    private static final byte BINARY = 1;
+    private static final byte GROUPING = 2;
+    private static final byte UNARY = 3;
+    private static final byte LOGICAL = 4;
+    private static final byte VARIABLE = 5;
+    private static final byte NIL = 6;
+    private static final byte TRUE = 7;
+    private static final byte FALSE = 8;
+    private static final byte NUMBER = 9;
+    private static final byte STRING = 10;
+    private static final byte INTEGER = 11;
+
+    /**
+     * The number of low bits of the first byte of a node that hold its static
+     * type, the high bits holding its tag.
+     */
+    private static final int STATIC_TYPE_BITS = 3;
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private static final StaticType[] STATIC_TYPES = StaticType.values();
+
+    private AstCodec() {
+    }
+
+    /**
+     * Encodes an abstract syntax tree.
+     *
+     * @param expr The root of the tree.
+     *
+     * @return The encoded tree.
+     *
+     * @throws IllegalArgumentException If the tree holds a literal that
+     *                                  cannot be encoded.
+     */
+    public static byte[] encode(Expr expr) {
+        Encoder encoder = new Encoder();
+        encoder.node(expr);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+            MAGIC.length + 8 + encoder.nodes.size()
+        );
+        out.writeBytes(MAGIC);
+        writeInt(out, VERSION);
+        writeInt(out, encoder.strings.size());
+        for (String string : encoder.strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeInt(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        out.writeBytes(encoder.nodes.toByteArray());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes an abstract syntax tree.
+     *
+     * @param buffer The encoded tree, from its position to its limit.
+     *
+     * @return The root of the tree, or {@code null} if the buffer does not
+     *         hold a tree encoded with the current version of the format.
+     */
+    public static Expr decode(ByteBuffer buffer) {
+        try {
+            for (byte magic : MAGIC) {
+                if (buffer.get() != magic) {
+                    return null;
+                }
+            }
+            if (readInt(buffer) != VERSION) {
+                return null;
+            }
+
+            String[] strings = new String[readInt(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readInt(buffer)];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            Expr expr = new Decoder(buffer, strings).node();
+            return buffer.hasRemaining() ? null : expr;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+            // Truncated or corrupted
+            return null;
+        }
+    }
+
+    /**
+     * Writes a non-negative integer as a variable-length quantity: seven bits
+     * per byte, least significant first, with the high bit set on every byte
+     * but the last.
+     */
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IndexOutOfBoundsException("Integer is too long");
+    }
+
+    /**
+     * @return {@code true} if the number is a non-negative {@code int}, and
+     *         not {@code -0}, {@code false} otherwise.
+     */
+    private static boolean isSmallInteger(double number) {
+        return number >= 0
+            && number <= Integer.MAX_VALUE
+            && number == (int) number
+            && Double.doubleToRawLongBits(number) != Double.doubleToRawLongBits(-0.0);
+    }
+
+    /**
+     * Writes the nodes of a tree and collects its strings.
+     */
+    private static class Encoder {
+
+        private final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+
+        /**
+         * The distinct strings of the tree, in order of first appearance.
+         */
+        private final List<String> strings = new ArrayList<>();
+
+        /**
+         * The index of every string in {@link #strings}.
+         */
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private void node(Expr expr) {
+            if (expr instanceof Binary binary) {
+                this.header(BINARY, binary.getStaticType());
+                this.token(binary.getOperator());
+                this.node(binary.getLeft());
+                this.node(binary.getRight());
+            } else if (expr instanceof Logical logical) {
+                this.header(LOGICAL, logical.getStaticType());
+                this.token(logical.getOperator());
+                this.node(logical.getLeft());
+                this.node(logical.getRight());
+            } else if (expr instanceof Unary unary) {
+                this.header(UNARY, unary.getStaticType());
+                this.token(unary.getOperator());
+                this.node(unary.getRight());
+            } else if (expr instanceof Grouping grouping) {
+                this.header(GROUPING, grouping.getStaticType());
+                this.node(grouping.getExpr());
+            } else if (expr instanceof Variable variable) {
+                this.header(VARIABLE, variable.getStaticType());
+                this.token(variable.getName());
+            } else if (expr instanceof Literal literal) {
+                this.literal(literal);
+            } else {
+                throw new IllegalArgumentException(
+                    "Unknown expression " + expr.getClass().getSimpleName()
+                );
+            }
+        }
+
+        private void literal(Literal literal) {
+            Object value = literal.getValue();
+            if (value == null) {
+                this.header(NIL, literal.getStaticType());
+            } else if (value instanceof Boolean bool) {
+                this.header(bool ? TRUE : FALSE, literal.getStaticType());
+            } else if (value instanceof Double number && isSmallInteger(number)) {
+                this.header(INTEGER, literal.getStaticType());
+                writeInt(this.nodes, number.intValue());
+            } else if (value instanceof Double number) {
+                this.header(NUMBER, literal.getStaticType());
+                long bits = Double.doubleToRawLongBits(number);
+                for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                    this.nodes.write((int) (bits >>> shift));
+                }
+            } else if (value instanceof CharSequence string) {
+                this.header(STRING, literal.getStaticType());
+                this.string(string);
+            } else {
+                throw new IllegalArgumentException(
+                    "Unknown literal " + value.getClass().getSimpleName()
+                );
+            }
+        }
+
+        private void header(byte tag, StaticType staticType) {
+            this.nodes.write(tag << STATIC_TYPE_BITS | staticType.ordinal());
+        }
+
+        private void token(Token token) {
+            writeInt(this.nodes, token.getType().ordinal());
+            this.string(token.getLexeme());
+            writeInt(this.nodes, token.getLineNumber());
+        }
+
+        private void string(CharSequence string) {
+            String key = string.toString();
+            Integer index = this.indexes.get(key);
+            if (index == null) {
+                index = this.strings.size();
+                this.strings.add(key);
+                this.indexes.put(key, index);
+            }
+            writeInt(this.nodes, index);
+        }
+
+    }
+
+    /**
+     * Reads the nodes of a tree.
+     */
+    private static class Decoder {
+
+        private final ByteBuffer buffer;
+
+        private final String[] strings;
+
+        private Decoder(ByteBuffer buffer, String[] strings) {
+            this.buffer = buffer;
+            this.strings = strings;
+        }
+
+        private Expr node() {
+            int header = this.buffer.get() & 0xFF;
+            int tag = header >>> STATIC_TYPE_BITS;
+            StaticType staticType =
+                STATIC_TYPES[header & ((1 << STATIC_TYPE_BITS) - 1)];
+            switch (tag) {
+                case BINARY: {
+                    Token operator = this.token();
+                    Expr left = this.node();
+                    return new Binary(left, operator, this.node(), staticType);
+                }
+                case LOGICAL: {
+                    Token operator = this.token();
+                    Expr left = this.node();
+                    return new Logical(left, operator, this.node(), staticType);
+                }
+                case UNARY: {
+                    Token operator = this.token();
+                    return new Unary(operator, this.node(), staticType);
+                }
+                case GROUPING:
+                    return new Grouping(this.node(), staticType);
+                case VARIABLE:
+                    return new Variable(this.token(), staticType);
+                case NIL:
+                    return new Literal(null, staticType);
+                case TRUE:
+                    return new Literal(true, staticType);
+                case FALSE:
+                    return new Literal(false, staticType);
+                case NUMBER: {
+                    long bits = 0;
+                    for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                        bits |= (this.buffer.get() & 0xFFL) << shift;
+                    }
+                    return new Literal(Double.longBitsToDouble(bits), staticType);
+                }
+                case INTEGER:
+                    return new Literal((double) readInt(this.buffer), staticType);
+                case STRING:
+                    return new Literal(this.strings[readInt(this.buffer)], staticType);
+                default:
+                    throw new IndexOutOfBoundsException("Unknown tag " + tag);
+            }
+        }
+
+        private Token token() {
+            TokenType type = TOKEN_TYPES[readInt(this.buffer)];
+            String lexeme = this.strings[readInt(this.buffer)];
+            return new Token(type, lexeme, null, readInt(this.buffer));
+        }
+
+    }
+
+}
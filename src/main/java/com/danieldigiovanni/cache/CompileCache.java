@@ -0,0 +1,115 @@
+package com.danieldigiovanni.cache;
+
+import com.danieldigiovanni.expr.Expr;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An on-disk cache of the abstract syntax trees parsed from Lox sources, so
+ * that an unchanged source is not lexed and parsed again.
+ * <p>
+ * Every tree is stored in the {@link AstCodec} format, in a file of the cache
+ * directory named after the SHA-256 digest of the source and the version of
+ * the format. Trees are loaded by memory-mapping their file. A file that is
+ * missing, of another version, or corrupted is a miss, and storing a tree
+ * replaces its file atomically, so concurrent runs never read a partial
+ * file.
+ * <p>
+ * The cache is best-effort: failing to read or write it is never an error,
+ * the source is just parsed again.
+ */
+public class CompileCache {
+
+    /**
+     * The extension of the files of the cache.
+     */
+    private static final String EXTENSION = ".loxast";
+
+    /**
+     * The directory of the files of the cache.
+     */
+    private final Path directory;
+
+    public CompileCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the tree parsed from a source.
+     *
+     * @param source The bytes of the source.
+     *
+     * @return The root of the tree, or {@code null} if it is not cached.
+     */
+    public Expr load(byte[] source) {
+        Path file = this.file(source);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                0,
+                channel.size()
+            );
+            return AstCodec.decode(buffer);
+        } catch (IOException exception) {
+            // Not cached, or not readable
+            return null;
+        }
+    }
+
+    /**
+     * Stores the tree parsed from a source.
+     *
+     * @param source The bytes of the source.
+     * @param expr The root of the tree.
+     */
+    public void store(byte[] source, Expr expr) {
+        Path file = this.file(source);
+        Path temporary = null;
+        try {
+            Files.createDirectories(this.directory);
+            temporary = Files.createTempFile(this.directory, null, EXTENSION);
+            Files.write(temporary, AstCodec.encode(expr));
+            Files.move(
+                temporary,
+                file,
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch (IOException | IllegalArgumentException exception) {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // Left behind, and never read since it is not named
+                    // after a digest
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The file of the tree parsed from a source.
+     */
+    private Path file(byte[] source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(exception);
+        }
+        String name = HexFormat.of().formatHex(digest.digest(source))
+            + "-v" + AstCodec.VERSION + EXTENSION;
+        return this.directory.resolve(name);
+    }
+
+}
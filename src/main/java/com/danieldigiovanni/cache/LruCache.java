@@ -0,0 +1,122 @@
+package com.danieldigiovanni.cache;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache with a bounded number of entries, which evicts the least recently
+ * used entry when it is full.
+ * <p>
+ * The cache keeps statistics of its hits, misses, and evictions. It is not
+ * thread-safe.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+@Getter
+public class LruCache<K, V> {
+
+    /**
+     * The maximum number of entries in the cache.
+     */
+    private final int capacity;
+
+    /**
+     * The number of lookups that found an entry.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of lookups that did not find an entry.
+     */
+    private long misses = 0;
+
+    /**
+     * The number of entries that were evicted to make room for new entries.
+     */
+    private long evictions = 0;
+
+    /**
+     * The entries of the cache, in access order (least recently used first).
+     */
+    @Getter(AccessLevel.NONE)
+    private final LinkedHashMap<K, V> entries;
+
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                "Cache capacity must be positive, got " + capacity
+            );
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (this.size() > LruCache.this.capacity) {
+                    LruCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up an entry, marking it as the most recently used.
+     *
+     * @param key The key of the entry.
+     *
+     * @return The value of the entry, or {@code null} if there is no entry
+     *         with the key.
+     */
+    public V get(K key) {
+        V value = this.entries.get(key);
+        if (value == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Adds an entry, evicting the least recently used entry if the cache is
+     * full.
+     *
+     * @param key The key of the entry.
+     * @param value The value of the entry, which must not be {@code null}.
+     */
+    public void put(K key, V value) {
+        this.entries.put(key, value);
+    }
+
+    /**
+     * @return The number of entries in the cache.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Removes all entries from the cache. The statistics are kept.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d/%d entries, %d hits, %d misses, %d evictions",
+            this.entries.size(),
+            this.capacity,
+            this.hits,
+            this.misses,
+            this.evictions
+        );
+    }
+
+}
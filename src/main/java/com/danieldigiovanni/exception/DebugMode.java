@@ -0,0 +1,35 @@
+package com.danieldigiovanni.exception;
+
+/**
+ * The debug mode of the Lox interpreter, enabled with the {@code --debug}
+ * option or the {@code jlox.debug} system property.
+ * <p>
+ * Lox exceptions only capture the Java stack trace in debug mode. Errors in
+ * Lox code are reported by their token and message, so the stack trace is
+ * only useful to debug the interpreter itself, and capturing it makes every
+ * error much more expensive.
+ */
+public final class DebugMode {
+
+    private static volatile boolean enabled = Boolean.getBoolean("jlox.debug");
+
+    private DebugMode() {
+    }
+
+    /**
+     * @return {@code true} if the debug mode is enabled, {@code false}
+     *         otherwise.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables the debug mode. Only the exceptions created afterwards capture
+     * their stack trace.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.danieldigiovanni.exception;
+
+import java.util.function.Supplier;
+
+/**
+ * Base class of the exceptions representing errors in Lox code.
+ * <p>
+ * The Java stack trace is only captured in debug mode (see
+ * {@link DebugMode}), and the error message may be formatted lazily, the
+ * first time it is used.
+ */
+public abstract class LoxException extends RuntimeException {
+
+    /**
+     * The error message, or {@code null} if it was not formatted yet.
+     */
+    private volatile String message;
+
+    /**
+     * The formatter of the error message, or {@code null} once it was
+     * formatted. It is cleared after {@link #message} is set, so a thread
+     * that sees it cleared also sees the message.
+     */
+    private volatile Supplier<String> messageFormatter;
+
+    /**
+     * Construct a {@link LoxException} with an error message.
+     *
+     * @param message The error message.
+     */
+    protected LoxException(String message) {
+        super(null, null, true, DebugMode.isEnabled());
+        this.message = message;
+    }
+
+    /**
+     * Construct a {@link LoxException} with the formatter of its error
+     * message, which is only called if the message is used, and the
+     * exception it was caused by.
+     *
+     * @param message The formatter of the error message.
+     * @param cause The exception this exception was caused by, or
+     *              {@code null}.
+     */
+    protected LoxException(Supplier<String> message, Throwable cause) {
+        super(null, cause, true, DebugMode.isEnabled());
+        this.messageFormatter = message;
+    }
+
+    @Override
+    public String getMessage() {
+        Supplier<String> formatter = this.messageFormatter;
+        if (formatter == null) {
+            return this.message;
+        }
+        // Threads formatting the message at the same time get equal messages
+        String formatted = formatter.get();
+        this.message = formatted;
+        this.messageFormatter = null;
+        return formatted;
+    }
+
+}
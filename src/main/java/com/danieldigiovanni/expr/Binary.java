@@ -12,6 +12,11 @@ public class Binary implements Expr {
     private final Expr left;
     private final Token operator;
     private final Expr right;
+    private final StaticType staticType;
+
+    public Binary(Expr left, Token operator, Expr right) {
+        this(left, operator, right, StaticType.UNKNOWN);
+    }
 
     @Override
     public <T> T accept(Visitor<T> visitor) {
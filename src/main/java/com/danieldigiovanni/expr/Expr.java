@@ -6,4 +6,13 @@ public interface Expr {
 
     <T> T accept(Visitor<T> visitor);
 
+    /**
+     * Gets the static type of the expression, which is
+     * {@link StaticType#UNKNOWN} unless the expression was built by the
+     * {@link com.danieldigiovanni.typechecker.TypeChecker}.
+     *
+     * @return The static type of the expression.
+     */
+    StaticType getStaticType();
+
 }
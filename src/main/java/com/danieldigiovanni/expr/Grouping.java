@@ -9,6 +9,11 @@ import lombok.Getter;
 public class Grouping implements Expr {
 
     private final Expr expr;
+    private final StaticType staticType;
+
+    public Grouping(Expr expr) {
+        this(expr, StaticType.UNKNOWN);
+    }
 
     @Override
     public <T> T accept(Visitor<T> visitor) {
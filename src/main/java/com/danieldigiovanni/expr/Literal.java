@@ -9,6 +9,11 @@ import lombok.Getter;
 public class Literal implements Expr {
 
     private final Object value;
+    private final StaticType staticType;
+
+    public Literal(Object value) {
+        this(value, StaticType.UNKNOWN);
+    }
 
     @Override
     public <T> T accept(Visitor<T> visitor) {
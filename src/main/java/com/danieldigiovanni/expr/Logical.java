@@ -0,0 +1,26 @@
+package com.danieldigiovanni.expr;
+
+import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.token.Token;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class Logical implements Expr {
+
+    private final Expr left;
+    private final Token operator;
+    private final Expr right;
+    private final StaticType staticType;
+
+    public Logical(Expr left, Token operator, Expr right) {
+        this(left, operator, right, StaticType.UNKNOWN);
+    }
+
+    @Override
+    public <T> T accept(Visitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
+}
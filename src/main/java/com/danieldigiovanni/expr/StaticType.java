@@ -0,0 +1,23 @@
+package com.danieldigiovanni.expr;
+
+/**
+ * The static type of an expression, as inferred by the
+ * {@link com.danieldigiovanni.typechecker.TypeChecker}.
+ * <p>
+ * An expression has a static type other than {@link #UNKNOWN} only if it is
+ * proven well-typed, meaning that neither it nor any of its subexpressions
+ * can fail a type check at runtime.
+ */
+public enum StaticType {
+
+    NIL,
+    BOOLEAN,
+    NUMBER,
+    STRING,
+
+    /*
+     * Not inferred, or not proven well-typed
+     */
+    UNKNOWN
+
+}
@@ -11,6 +11,11 @@ public class Unary implements Expr {
 
     private final Token operator;
     private final Expr right;
+    private final StaticType staticType;
+
+    public Unary(Token operator, Expr right) {
+        this(operator, right, StaticType.UNKNOWN);
+    }
 
     @Override
     public <T> T accept(Visitor<T> visitor) {
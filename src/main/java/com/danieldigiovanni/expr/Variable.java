@@ -0,0 +1,24 @@
+package com.danieldigiovanni.expr;
+
+import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.token.Token;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class Variable implements Expr {
+
+    private final Token name;
+    private final StaticType staticType;
+
+    public Variable(Token name) {
+        this(name, StaticType.UNKNOWN);
+    }
+
+    @Override
+    public <T> T accept(Visitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
+}
@@ -4,41 +4,117 @@ import com.danieldigiovanni.expr.Binary;
 import com.danieldigiovanni.expr.Expr;
 import com.danieldigiovanni.expr.Grouping;
 import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
 import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.token.Token;
 
-public class AstPrinterVisitor implements Visitor<String> {
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Prints an abstract syntax tree in prefix notation, e.g.
+ * {@code (+ 1 (* 2 3))}.
+ * <p>
+ * Every node is written straight to the output as it is visited, so printing
+ * a tree takes a time proportional to its size.
+ */
+public class AstPrinterVisitor implements Visitor<Void> {
+
+    /**
+     * Where the tree being printed is written.
+     */
+    private Appendable out;
 
     public String print(Expr expr) {
-        return expr.accept(this);
+        StringBuilder s = new StringBuilder();
+        try {
+            this.print(expr, s);
+        } catch (IOException exception) {
+            // A StringBuilder does not throw
+            throw new UncheckedIOException(exception);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Prints an abstract syntax tree.
+     *
+     * @param expr The root of the tree.
+     * @param out Where the tree is written.
+     *
+     * @throws IOException If the tree could not be written.
+     */
+    public void print(Expr expr, Appendable out) throws IOException {
+        this.out = out;
+        try {
+            expr.accept(this);
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        } finally {
+            this.out = null;
+        }
+    }
+
+    @Override
+    public Void visit(Binary expr) {
+        return this.operation(expr.getOperator(), expr.getLeft(), expr.getRight());
     }
 
     @Override
-    public String visit(Binary expr) {
-        return String.format(
-            "(%s %s %s)",
-            expr.getOperator().getLexeme(),
-            expr.getLeft().accept(this),
-            expr.getRight().accept(this)
-        );
+    public Void visit(Grouping expr) {
+        this.append("(");
+        expr.getExpr().accept(this);
+        this.append(")");
+        return null;
     }
 
     @Override
-    public String visit(Grouping expr) {
-        return String.format("(%s)", expr.getExpr().accept(this));
+    public Void visit(Unary expr) {
+        this.append("(").append(expr.getOperator().getLexeme()).append(" ");
+        expr.getRight().accept(this);
+        this.append(")");
+        return null;
     }
 
     @Override
-    public String visit(Unary expr) {
-        return String.format(
-            "(%s %s)",
-            expr.getOperator().getLexeme(),
-            expr.getRight().accept(this)
-        );
+    public Void visit(Literal expr) {
+        Object value = expr.getValue();
+        this.append(value != null ? value.toString() : "nil");
+        return null;
     }
 
     @Override
-    public String visit(Literal expr) {
-        return expr != null ? expr.getValue().toString() : "nil";
+    public Void visit(Logical expr) {
+        return this.operation(expr.getOperator(), expr.getLeft(), expr.getRight());
+    }
+
+    @Override
+    public Void visit(Variable expr) {
+        this.append(expr.getName().getLexeme());
+        return null;
+    }
+
+    private Void operation(Token operator, Expr left, Expr right) {
+        this.append("(").append(operator.getLexeme()).append(" ");
+        left.accept(this);
+        this.append(" ");
+        right.accept(this);
+        this.append(")");
+        return null;
+    }
+
+    /**
+     * Writes text to the output, wrapping any error in an unchecked
+     * exception since visits cannot throw checked ones.
+     */
+    private AstPrinterVisitor append(CharSequence text) {
+        try {
+            this.out.append(text);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return this;
     }
 
 }
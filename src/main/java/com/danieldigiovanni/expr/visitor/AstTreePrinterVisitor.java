@@ -4,222 +4,358 @@ import com.danieldigiovanni.expr.Binary;
 import com.danieldigiovanni.expr.Expr;
 import com.danieldigiovanni.expr.Grouping;
 import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
 import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.token.Token;
 
-public class AstTreePrinterVisitor implements Visitor<String> {
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
-    public String print(Expr expr) {
-        return expr.accept(this);
-    }
+/**
+ * Draws an abstract syntax tree as boxes linked by lines, with the operands
+ * of every operator drawn side by side below it.
+ * <p>
+ * The tree is drawn in two passes. The first one visits every node once to
+ * lay it out: it computes the length of every line of the drawing of the
+ * node from the ones of its operands, and records the number of lines and
+ * the width of the drawing. The second one streams the drawing line by line,
+ * each line being written by the nodes it goes through. No line of the
+ * drawing of a subtree is ever built on its own or copied, so drawing a tree
+ * takes a time proportional to the size of the drawing.
+ */
+public class AstTreePrinterVisitor implements Visitor<int[]> {
 
-    @Override
-    public String visit(Binary expr) {
-        String s1 = expr.getLeft().accept(this);
-        String s2 = expr.getRight().accept(this);
-        String operand = this.combine(s1, s2);
-        int maxLineLength = this.maxLineLength(operand);
+    /**
+     * The line below the box of an operator, linking it to its operands.
+     */
+    private static final String LINK = "    |   ";
+
+    /**
+     * The number of lines above the drawing of the operands of an operator.
+     */
+    private static final int HEADER_LINES = 5;
+
+    private static final String SPACES = " ".repeat(64);
 
+    private static final String DASHES = "-".repeat(64);
+
+    /**
+     * The layout of every node of the tree being drawn.
+     */
+    private final Map<Expr, Layout> layouts = new IdentityHashMap<>();
+
+    /**
+     * Draws an abstract syntax tree.
+     *
+     * @param expr The root of the tree.
+     *
+     * @return The drawing, every line of which ends with a line terminator.
+     */
+    public String print(Expr expr) {
         StringBuilder s = new StringBuilder();
-        if (expr.getOperator().getLexeme().length() == 1) {
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("--------");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("|  "     );
-            s.append(" ");
-            s.append(expr.getOperator().getLexeme());
-            s.append(     "  |");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("--------");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("    |   ");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("    |   ");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-        } else {
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("--------");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("|  "     );
-            s.append(expr.getOperator().getLexeme());
-            s.append(     "  |");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("--------");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("    |   ");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("    |   ");
-            s.append(" ".repeat(maxLineLength/2 - 4));
-            s.append("\n");
+        try {
+            this.print(expr, s);
+        } catch (IOException exception) {
+            // A StringBuilder does not throw
+            throw new UncheckedIOException(exception);
         }
-        s.append(operand);
         return s.toString();
     }
 
-    private String combine(String s1, String s2) {
-        int m1 = this.maxLineLength(s1);
-        int m2 = this.maxLineLength(s2);
+    /**
+     * Draws an abstract syntax tree, streaming it line by line.
+     *
+     * @param expr The root of the tree.
+     * @param out Where the drawing is written, every line of which ends with
+     *            a line terminator.
+     *
+     * @throws IOException If the drawing could not be written.
+     */
+    public void print(Expr expr, Appendable out) throws IOException {
+        try {
+            int lines = expr.accept(this).length;
+            for (int line = 0; line < lines; line++) {
+                this.line(expr, line, out);
+                out.append('\n');
+            }
+        } finally {
+            this.layouts.clear();
+        }
+    }
 
-        String[] l1 = s1.split("\\n");
-        String[] l2 = s2.split("\\n");
+    @Override
+    public int[] visit(Binary expr) {
+        return this.operation(expr, expr.getLeft(), expr.getOperator(), expr.getRight());
+    }
 
-        StringBuilder s = new StringBuilder();
+    @Override
+    public int[] visit(Logical expr) {
+        return this.operation(expr, expr.getLeft(), expr.getOperator(), expr.getRight());
+    }
 
-        s.append(" ".repeat(m1/2));
-        s.append("|");
-        s.append("-".repeat(m1/2));
-        s.append("-".repeat(m2/2));
-        s.append("|");
-        s.append(" ".repeat(m2/2));
-        s.append("\n");
-
-        s.append(" ".repeat(m1/2));
-        s.append("|");
-        s.append(" ".repeat(m1/2));
-        s.append(" ".repeat(m2/2));
-        s.append("|");
-        s.append(" ".repeat(m2/2));
-        s.append("\n");
-
-        int i=0, j=0;
-        while (i < l1.length && j < l2.length) {
-            s.append(l1[i]);
-            s.append("  ");
-            s.append(l2[j]);
-            s.append("\n");
-            i++;
-            j++;
-        }
-        while (i < l1.length) {
-            s.append(l1[i]);
-            s.append("  ");
-            s.append(" ".repeat(m2));
-            s.append("\n");
-            i++;
-        }
-        while (j < l2.length) {
-            s.append(" ".repeat(m1));
-            s.append("  ");
-            s.append(l2[j]);
-            s.append("\n");
-            j++;
-        }
-        return s.toString();
+    @Override
+    public int[] visit(Grouping expr) {
+        return this.header(
+            expr,
+            "----------",
+            "|  (  )  |",
+            5,
+            expr.getExpr(),
+            null,
+            expr.getExpr().accept(this)
+        );
     }
 
     @Override
-    public String visit(Grouping expr) {
-        StringBuilder s = new StringBuilder();
-        String operand = expr.getExpr().accept(this);
-        int maxLineLength = this.maxLineLength(operand);
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("----------");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("|  (  )  |");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("----------");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("    |   ");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("    |   ");
-        s.append(" ".repeat(maxLineLength/2 - 5));
-        s.append("\n");
-        s.append(operand);
-        return s.toString();
+    public int[] visit(Unary expr) {
+        return this.header(
+            expr,
+            "--------",
+            "|  " + expr.getOperator().getLexeme() + "  |",
+            4,
+            expr.getRight(),
+            null,
+            expr.getRight().accept(this)
+        );
     }
 
     @Override
-    public String visit(Unary expr) {
-        StringBuilder s = new StringBuilder();
-        String operand = expr.getRight().accept(this);
-        int maxLineLength = this.maxLineLength(operand);
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("--------");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("|  "     );
-        s.append(expr.getOperator().getLexeme());
-        s.append(     "  |");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("--------");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("    |   ");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("\n");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("    |   ");
-        s.append(" ".repeat(maxLineLength/2 - 4));
-        s.append("\n");
-        s.append(operand);
-        return s.toString();
+    public int[] visit(Literal expr) {
+        Object value = expr.getValue();
+        return this.box(expr, value != null ? value.toString() : "nil");
     }
 
     @Override
-    public String visit(Literal expr) {
-        StringBuilder s = new StringBuilder();
-        if (expr == null) {
-            s.append("-------------\n");
-            s.append("|    nil    |\n");
-            s.append("-------------\n");
+    public int[] visit(Variable expr) {
+        return this.box(expr, expr.getName().getLexeme().toString());
+    }
+
+    /**
+     * Lays out a binary operator, whose operands are drawn side by side.
+     *
+     * @return The length of every line of the drawing of the operator.
+     */
+    private int[] operation(Expr expr, Expr left, Token operator, Expr right) {
+        int[] l1 = left.accept(this);
+        int[] l2 = right.accept(this);
+        int m1 = this.layouts.get(left).width;
+        int m2 = this.layouts.get(right).width;
+
+        // The two lines linking the operator to its operands, then the
+        // operands side by side
+        int[] operands = new int[2 + Math.max(l1.length, l2.length)];
+        operands[0] = m1 / 2 * 2 + m2 / 2 * 2 + 2;
+        operands[1] = operands[0];
+        for (int i = 0; i + 2 < operands.length; i++) {
+            operands[i + 2] = (i < l1.length ? l1[i] : m1)
+                + 2
+                + (i < l2.length ? l2[i] : m2);
+        }
+
+        String label = operator.getLexeme().length() == 1
+            ? "|   " + operator.getLexeme() + "  |"
+            : "|  " + operator.getLexeme() + "  |";
+        return this.header(expr, "--------", label, 4, left, right, operands);
+    }
+
+    /**
+     * Lays out an operator, drawn as a box above the drawing of its operands.
+     *
+     * @param expr The operator.
+     * @param border The top and bottom lines of the box.
+     * @param label The middle line of the box.
+     * @param indent The indentation of the box, subtracted from half the
+     *               width of the drawing of the operands.
+     * @param first The first operand.
+     * @param second The second operand, or {@code null} if there is only one.
+     * @param operands The length of every line of the drawing of the
+     *                 operands.
+     *
+     * @return The length of every line of the drawing of the operator.
+     */
+    private int[] header(
+        Expr expr,
+        String border,
+        String label,
+        int indent,
+        Expr first,
+        Expr second,
+        int[] operands
+    ) {
+        int pad = max(operands) / 2 - indent;
+
+        int[] lines = new int[HEADER_LINES + operands.length];
+        lines[0] = 2 * pad + border.length();
+        lines[1] = 2 * pad + label.length();
+        lines[2] = 2 * pad + border.length();
+        lines[3] = 2 * pad + LINK.length();
+        lines[4] = 2 * pad + LINK.length();
+        System.arraycopy(operands, 0, lines, HEADER_LINES, operands.length);
+
+        this.layouts.put(
+            expr,
+            new Layout(lines.length, max(lines), pad, border, label, first, second)
+        );
+        return lines;
+    }
+
+    /**
+     * Lays out a leaf, drawn as a box around its text.
+     *
+     * @return The length of every line of the drawing of the leaf.
+     */
+    private int[] box(Expr expr, String text) {
+        String border = "-----" + "-".repeat(text.length()) + "-----";
+        String label = "|    " + text + "    |";
+        this.layouts.put(
+            expr,
+            new Layout(3, border.length(), 0, border, label, null, null)
+        );
+        return new int[] { border.length(), label.length(), border.length() };
+    }
+
+    /**
+     * Writes a line of the drawing of a subtree, without its line
+     * terminator.
+     *
+     * @param expr The root of the subtree.
+     * @param line The index of the line in the drawing of the subtree.
+     * @param out Where the line is written.
+     */
+    private void line(Expr expr, int line, Appendable out) throws IOException {
+        Layout layout = this.layouts.get(expr);
+
+        if (layout.first == null) {
+            out.append(line == 1 ? layout.label : layout.border);
+            return;
+        }
+
+        if (line < HEADER_LINES) {
+            repeat(out, SPACES, layout.pad);
+            out.append(switch (line) {
+                case 0, 2 -> layout.border;
+                case 1 -> layout.label;
+                default -> LINK;
+            });
+            repeat(out, SPACES, layout.pad);
+            return;
+        }
+
+        line -= HEADER_LINES;
+        if (layout.second == null) {
+            this.line(layout.first, line, out);
+            return;
+        }
+
+        Layout left = this.layouts.get(layout.first);
+        Layout right = this.layouts.get(layout.second);
+        if (line < 2) {
+            repeat(out, SPACES, left.width / 2);
+            out.append('|');
+            repeat(out, line == 0 ? DASHES : SPACES, left.width / 2 + right.width / 2);
+            out.append('|');
+            repeat(out, SPACES, right.width / 2);
+            return;
+        }
+
+        line -= 2;
+        if (line < left.lines) {
+            this.line(layout.first, line, out);
         } else {
-            int len = expr.getValue().toString().length();
-            s.append("-----");
-            s.append("-".repeat(len));
-            s.append("-----\n");
-            s.append("|   ");
-            s.append(" ");
-            s.append(expr.getValue().toString());
-            s.append(" ");
-            s.append("   |\n");
-            s.append("-----");
-            s.append("-".repeat(len));
-            s.append("-----\n");
+            repeat(out, SPACES, left.width);
+        }
+        out.append("  ");
+        if (line < right.lines) {
+            this.line(layout.second, line, out);
+        } else {
+            repeat(out, SPACES, right.width);
         }
-        return s.toString();
     }
 
-    private int maxLineLength(String s) {
+    /**
+     * Writes a character repeated a number of times.
+     *
+     * @param out Where the characters are written.
+     * @param run A run of the character.
+     * @param count The number of times the character is written.
+     */
+    private static void repeat(Appendable out, String run, int count) throws IOException {
+        while (count > run.length()) {
+            out.append(run);
+            count -= run.length();
+        }
+        out.append(run, 0, count);
+    }
+
+    private static int max(int[] values) {
         int max = 0;
-        int current = 0;
-        char c;
-        for (int i = 0; i < s.length(); i++) {
-            if (s.charAt(i) == '\n') {
-                max = current > max ? current : max;
-                current = 0;
-            } else {
-                current++;
-            }
+        for (int value : values) {
+            max = Math.max(max, value);
         }
         return max;
     }
 
+    /**
+     * The layout of the drawing of a node.
+     */
+    private static class Layout {
+
+        /**
+         * The number of lines of the drawing.
+         */
+        private final int lines;
+
+        /**
+         * The length of the longest line of the drawing.
+         */
+        private final int width;
+
+        /**
+         * The number of spaces on each side of the box of an operator.
+         */
+        private final int pad;
+
+        /**
+         * The top and bottom lines of the box of the node.
+         */
+        private final String border;
+
+        /**
+         * The middle line of the box of the node.
+         */
+        private final String label;
+
+        /**
+         * The first operand of an operator, or {@code null} for a leaf.
+         */
+        private final Expr first;
+
+        /**
+         * The second operand of a binary operator, or {@code null}.
+         */
+        private final Expr second;
+
+        private Layout(
+            int lines,
+            int width,
+            int pad,
+            String border,
+            String label,
+            Expr first,
+            Expr second
+        ) {
+            this.lines = lines;
+            this.width = width;
+            this.pad = pad;
+            this.border = border;
+            this.label = label;
+            this.first = first;
+            this.second = second;
+        }
+
+    }
+
 }
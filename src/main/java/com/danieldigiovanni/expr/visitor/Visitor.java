@@ -3,7 +3,9 @@ package com.danieldigiovanni.expr.visitor;
 import com.danieldigiovanni.expr.Binary;
 import com.danieldigiovanni.expr.Grouping;
 import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
 import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
 
 public interface Visitor<T> {
 
@@ -15,4 +17,8 @@ public interface Visitor<T> {
 
     T visit(Literal expr);
 
+    T visit(Logical expr);
+
+    T visit(Variable expr);
+
 }
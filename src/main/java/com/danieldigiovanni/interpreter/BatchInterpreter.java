@@ -0,0 +1,426 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.interpreter.batch.BooleanColumn;
+import com.danieldigiovanni.interpreter.batch.Column;
+import com.danieldigiovanni.interpreter.batch.ColumnBatch;
+import com.danieldigiovanni.interpreter.batch.ConstantColumn;
+import com.danieldigiovanni.interpreter.batch.NumberColumn;
+import com.danieldigiovanni.interpreter.batch.ObjectColumn;
+import com.danieldigiovanni.interpreter.exception.LoxBatchRowRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUndefinedVariableRuntimeException;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+import java.util.Arrays;
+
+/**
+ * An evaluator of a Lox expression over a whole batch of rows, with the
+ * variables of the expression bound to the columns of the batch.
+ * <p>
+ * Every node is visited once per batch and produces a whole column of
+ * results. Operations on numbers are performed in tight loops over primitive
+ * arrays, and any other operation falls back to the boxed operation of every
+ * row.
+ * <p>
+ * The result of every row is the same as the one of evaluating the
+ * expression on that row alone with an {@link Interpreter}. In particular,
+ * the right operand of a logical operator is only evaluated for the rows
+ * where the left operand does not decide the result, and a row that failed
+ * is not evaluated any further, so each row fails with the error it would
+ * have failed with on its own. If any row fails, the error of the first one
+ * is thrown as a {@link LoxBatchRowRuntimeException}.
+ */
+public class BatchInterpreter implements Visitor<Column> {
+
+    /**
+     * The batch being evaluated.
+     */
+    private ColumnBatch batch;
+
+    /**
+     * The number of rows of the batch being evaluated.
+     */
+    private int size;
+
+    /**
+     * The rows the current subtree is evaluated for, or {@code null} if it is
+     * evaluated for every row.
+     */
+    private boolean[] selected;
+
+    /**
+     * The error of every row that failed, or {@code null} if no row failed.
+     */
+    private LoxRuntimeException[] errors;
+
+    /**
+     * Evaluates a Lox expression over a batch of rows.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param batch The rows, with a column bound to each variable of the
+     *              expression.
+     *
+     * @return The result of the expression for every row.
+     *
+     * @throws LoxBatchRowRuntimeException If the expression failed for any
+     *                                     row.
+     */
+    public Column evaluate(Expr expr, ColumnBatch batch) {
+        this.batch = batch;
+        this.size = batch.getSize();
+        try {
+            Column result = expr.accept(this);
+            if (this.errors != null) {
+                for (int row = 0; row < this.size; row++) {
+                    if (this.errors[row] != null) {
+                        throw new LoxBatchRowRuntimeException(
+                            row,
+                            this.errors[row]
+                        );
+                    }
+                }
+            }
+            return result;
+        } finally {
+            this.batch = null;
+            this.selected = null;
+            this.errors = null;
+        }
+    }
+
+    @Override
+    public Column visit(Binary expr) {
+        Column left = expr.getLeft().accept(this);
+        Column right = expr.getRight().accept(this);
+        Token operator = expr.getOperator();
+
+        double[] leftNumbers = this.numbers(left);
+        double[] rightNumbers = this.numbers(right);
+        if (leftNumbers != null && rightNumbers != null) {
+            switch (operator.getType()) {
+                case PLUS:
+                case MINUS:
+                case STAR:
+                case SLASH:
+                    return new NumberColumn(arithmetic(
+                        operator.getType(),
+                        leftNumbers,
+                        rightNumbers
+                    ));
+                case GREATER:
+                case GREATER_EQUAL:
+                case LESS:
+                case LESS_EQUAL:
+                case EQUAL_EQUAL:
+                case BANG_EQUAL:
+                    return new BooleanColumn(compare(
+                        operator.getType(),
+                        leftNumbers,
+                        rightNumbers
+                    ));
+            }
+        }
+
+        Object[] results = new Object[this.size];
+        for (int row = 0; row < this.size; row++) {
+            if (this.live(row)) {
+                try {
+                    results[row] = OperatorTable.binary(
+                        operator,
+                        left.get(row),
+                        right.get(row)
+                    );
+                } catch (LoxRuntimeException exception) {
+                    this.fail(row, exception);
+                }
+            }
+        }
+        return this.narrow(results);
+    }
+
+    @Override
+    public Column visit(Grouping expr) {
+        return expr.getExpr().accept(this);
+    }
+
+    @Override
+    public Column visit(Unary expr) {
+        Column right = expr.getRight().accept(this);
+        Token operator = expr.getOperator();
+
+        double[] numbers = this.numbers(right);
+        if (operator.getType() == TokenType.MINUS && numbers != null) {
+            double[] results = new double[this.size];
+            for (int row = 0; row < this.size; row++) {
+                results[row] = -numbers[row];
+            }
+            return new NumberColumn(results);
+        }
+
+        Object[] results = new Object[this.size];
+        for (int row = 0; row < this.size; row++) {
+            if (this.live(row)) {
+                try {
+                    results[row] = OperatorTable.unary(operator, right.get(row));
+                } catch (LoxRuntimeException exception) {
+                    this.fail(row, exception);
+                }
+            }
+        }
+        return this.narrow(results);
+    }
+
+    @Override
+    public Column visit(Literal expr) {
+        return new ConstantColumn(expr.getValue(), this.size);
+    }
+
+    @Override
+    public Column visit(Logical expr) {
+        Column left = expr.getLeft().accept(this);
+        boolean or = expr.getOperator().getType() == TokenType.OR;
+
+        // The rows whose result is decided by the left operand
+        boolean[] decided = new boolean[this.size];
+        boolean anyUndecided = false;
+        for (int row = 0; row < this.size; row++) {
+            decided[row] = truthy(left, row) == or;
+            anyUndecided |= !decided[row] && this.live(row);
+        }
+        if (!anyUndecided) {
+            return left;
+        }
+
+        // The right operand is only evaluated for the undecided rows
+        boolean[] outer = this.selected;
+        boolean[] inner = new boolean[this.size];
+        for (int row = 0; row < this.size; row++) {
+            inner[row] = !decided[row] && (outer == null || outer[row]);
+        }
+        Column right;
+        this.selected = inner;
+        try {
+            right = expr.getRight().accept(this);
+        } finally {
+            this.selected = outer;
+        }
+
+        return this.select(decided, left, right);
+    }
+
+    @Override
+    public Column visit(Variable expr) {
+        Column column = this.batch.getColumn(
+            expr.getName().getLexeme().toString()
+        );
+        if (column != null) {
+            return column;
+        }
+
+        LoxRuntimeException exception =
+            new LoxUndefinedVariableRuntimeException(expr.getName());
+        for (int row = 0; row < this.size; row++) {
+            if (this.live(row)) {
+                this.fail(row, exception);
+            }
+        }
+        return new ConstantColumn(null, this.size);
+    }
+
+    /**
+     * Gets the values of a column of numbers as a primitive array.
+     *
+     * @param column The column.
+     *
+     * @return The numbers of the column, or {@code null} if it is not a
+     *         column of numbers.
+     */
+    private double[] numbers(Column column) {
+        if (column instanceof NumberColumn numbers) {
+            return numbers.getValues();
+        }
+        if (
+            column instanceof ConstantColumn constant
+                && constant.getValue() instanceof Double number
+        ) {
+            double[] numbers = new double[this.size];
+            Arrays.fill(numbers, number);
+            return numbers;
+        }
+        return null;
+    }
+
+    private static double[] arithmetic(TokenType operator, double[] left, double[] right) {
+        double[] results = new double[left.length];
+        switch (operator) {
+            case PLUS:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] + right[row];
+                }
+                break;
+            case MINUS:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] - right[row];
+                }
+                break;
+            case STAR:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] * right[row];
+                }
+                break;
+            case SLASH:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] / right[row];
+                }
+                break;
+        }
+        return results;
+    }
+
+    private static boolean[] compare(TokenType operator, double[] left, double[] right) {
+        boolean[] results = new boolean[left.length];
+        switch (operator) {
+            case GREATER:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] > right[row];
+                }
+                break;
+            case GREATER_EQUAL:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] >= right[row];
+                }
+                break;
+            case LESS:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] < right[row];
+                }
+                break;
+            case LESS_EQUAL:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = left[row] <= right[row];
+                }
+                break;
+            case EQUAL_EQUAL:
+                // Consistent with the equality of boxed numbers
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = Double.doubleToLongBits(left[row])
+                        == Double.doubleToLongBits(right[row]);
+                }
+                break;
+            case BANG_EQUAL:
+                for (int row = 0; row < results.length; row++) {
+                    results[row] = Double.doubleToLongBits(left[row])
+                        != Double.doubleToLongBits(right[row]);
+                }
+                break;
+        }
+        return results;
+    }
+
+    private static boolean truthy(Column column, int row) {
+        if (column instanceof BooleanColumn booleans) {
+            return booleans.getValues()[row];
+        }
+        if (column instanceof NumberColumn) {
+            return true;
+        }
+        return Interpreter.truthy(column.get(row));
+    }
+
+    /**
+     * Combines the results of the operands of a logical operator.
+     *
+     * @param fromLeft The rows whose result is the left operand.
+     * @param left The results of the left operand.
+     * @param right The results of the right operand.
+     *
+     * @return The results of the logical operator.
+     */
+    private Column select(boolean[] fromLeft, Column left, Column right) {
+        double[] leftNumbers = this.numbers(left);
+        double[] rightNumbers = this.numbers(right);
+        if (leftNumbers != null && rightNumbers != null) {
+            double[] results = new double[this.size];
+            for (int row = 0; row < this.size; row++) {
+                results[row] = fromLeft[row] ? leftNumbers[row] : rightNumbers[row];
+            }
+            return new NumberColumn(results);
+        }
+
+        Object[] results = new Object[this.size];
+        for (int row = 0; row < this.size; row++) {
+            results[row] = fromLeft[row] ? left.get(row) : right.get(row);
+        }
+        return this.narrow(results);
+    }
+
+    /**
+     * Stores boxed results in the most specific kind of column: a column of
+     * numbers or booleans if all the results of the rows that did not fail
+     * are of that type.
+     *
+     * @param results The boxed results.
+     *
+     * @return The column of the results.
+     */
+    private Column narrow(Object[] results) {
+        boolean numbers = true;
+        boolean booleans = true;
+        for (int row = 0; row < this.size && (numbers || booleans); row++) {
+            if (this.live(row)) {
+                numbers &= results[row] instanceof Double;
+                booleans &= results[row] instanceof Boolean;
+            }
+        }
+
+        if (numbers) {
+            double[] values = new double[this.size];
+            for (int row = 0; row < this.size; row++) {
+                if (results[row] instanceof Double number) {
+                    values[row] = number;
+                }
+            }
+            return new NumberColumn(values);
+        }
+        if (booleans) {
+            boolean[] values = new boolean[this.size];
+            for (int row = 0; row < this.size; row++) {
+                values[row] = Boolean.TRUE.equals(results[row]);
+            }
+            return new BooleanColumn(values);
+        }
+        return new ObjectColumn(results);
+    }
+
+    /**
+     * @return {@code true} if the current subtree is evaluated for the row
+     *         and the row did not fail, {@code false} otherwise.
+     */
+    private boolean live(int row) {
+        return (this.selected == null || this.selected[row])
+            && (this.errors == null || this.errors[row] == null);
+    }
+
+    /**
+     * Records the error of a row, which is not evaluated any further.
+     *
+     * @param row The index of the row.
+     * @param exception The error of the row.
+     */
+    private void fail(int row, LoxRuntimeException exception) {
+        if (this.errors == null) {
+            this.errors = new LoxRuntimeException[this.size];
+        }
+        this.errors[row] = exception;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.danieldigiovanni.interpreter;
+
+/**
+ * A flag used to cancel an evaluation from another thread.
+ * <p>
+ * Cancellation is cooperative: the evaluator checks the flag periodically
+ * and stops with a
+ * {@link com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException}
+ * once it is set.
+ * <p>
+ * A token may have a parent token, in which case it is also cancelled when
+ * its parent is. This is used to cancel a part of an evaluation on its own.
+ */
+public class CancellationToken {
+
+    /**
+     * The token this one is cancelled with, or {@code null}.
+     */
+    private final CancellationToken parent;
+
+    private volatile boolean cancelled = false;
+
+    public CancellationToken() {
+        this(null);
+    }
+
+    CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Requests the cancellation of the evaluations that use this token.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return {@code true} if cancellation was requested, {@code false}
+     *         otherwise.
+     */
+    public boolean isCancelled() {
+        return this.cancelled
+            || (this.parent != null && this.parent.isCancelled());
+    }
+
+}
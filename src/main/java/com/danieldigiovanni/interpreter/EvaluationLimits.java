@@ -0,0 +1,35 @@
+package com.danieldigiovanni.interpreter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Limits on an evaluation: a budget of steps, and a token to cancel it from
+ * another thread.
+ * <p>
+ * A step is the evaluation of one operation (a unary, binary or logical
+ * operator) or variable. Literals and groupings are free, since there cannot
+ * be more of them than operations and characters of source code.
+ */
+@AllArgsConstructor
+@Getter
+public class EvaluationLimits {
+
+    /**
+     * No limits at all.
+     */
+    public static final EvaluationLimits NONE =
+        new EvaluationLimits(Long.MAX_VALUE, null);
+
+    /**
+     * The maximum number of steps, or {@link Long#MAX_VALUE} for no budget.
+     */
+    private final long stepBudget;
+
+    /**
+     * The token to cancel the evaluation, or {@code null} if it cannot be
+     * cancelled.
+     */
+    private final CancellationToken cancellation;
+
+}
@@ -4,18 +4,165 @@ import com.danieldigiovanni.expr.Binary;
 import com.danieldigiovanni.expr.Expr;
 import com.danieldigiovanni.expr.Grouping;
 import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.StaticType;
 import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
 import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.interpreter.exception.LoxBudgetExceededRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException;
 import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
-import com.danieldigiovanni.interpreter.exception.LoxBinaryOperandsTypeRuntimeException;
-import com.danieldigiovanni.interpreter.exception.LoxPlusOperandsTypeRuntimeRuntimeException;
-import com.danieldigiovanni.interpreter.exception.LoxUnaryOperandTypeRuntimeException;
-import com.danieldigiovanni.interpreter.exception.LoxUnknownBinaryOperatorRuntimeException;
-import com.danieldigiovanni.interpreter.exception.LoxUnknownUnaryOperatorRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUndefinedVariableRuntimeException;
+import com.danieldigiovanni.interpreter.value.LoxNumberFormatter;
+import com.danieldigiovanni.interpreter.value.LoxRope;
+import com.danieldigiovanni.output.OutputSink;
 import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+import java.util.Map;
 
 public class Interpreter implements Visitor<Object> {
 
+    /**
+     * The largest magnitude of an integral value kept as a {@code long} by
+     * {@link #evaluateLong(Expr)}. Every integer up to this magnitude is
+     * exactly representable as a {@code double}.
+     */
+    private static final long MAX_EXACT_INTEGRAL = 1L << 53;
+
+    /**
+     * The maximum number of steps taken between two checks of the budget and
+     * of the cancellation token.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * Set by {@link #evaluateLong(Expr)} when the expression it evaluated
+     * did not produce a number. In that case the boxed result of the
+     * expression is held in {@link #nonNumericResult}.
+     */
+    private boolean nonNumeric = false;
+
+    /**
+     * The boxed result of the last expression evaluated by
+     * {@link #evaluateLong(Expr)} that did not produce a number.
+     */
+    private Object nonNumericResult = null;
+
+    /**
+     * Set by {@link #evaluateLong(Expr)} when the expression it evaluated did
+     * not produce an integral value. In that case the numeric result of the
+     * expression is held in {@link #nonIntegralResult}.
+     */
+    private boolean nonIntegral = false;
+
+    /**
+     * The numeric result of the last expression evaluated by
+     * {@link #evaluateLong(Expr)} that did not produce an integral value.
+     */
+    private double nonIntegralResult = 0;
+
+    /**
+     * The values bound to the variables, by name. Values must be Lox values
+     * ({@code null}, {@link Boolean}, {@link Double} or
+     * {@link CharSequence}).
+     */
+    private final Map<String, Object> bindings;
+
+    /**
+     * The maximum number of steps (see {@link EvaluationLimits}) taken over
+     * the lifetime of this interpreter.
+     */
+    private final long stepBudget;
+
+    /**
+     * The token to cancel the evaluation, or {@code null} if it cannot be
+     * cancelled.
+     */
+    private final CancellationToken cancellation;
+
+    /**
+     * The budget shared with the other evaluators of the same evaluation,
+     * which the steps are taken from, or {@code null} if this interpreter has
+     * its own budget.
+     */
+    private final SharedStepBudget sharedSteps;
+
+    /**
+     * The number of steps taken before the last check.
+     */
+    private long stepsTaken = 0;
+
+    /**
+     * The number of steps allowed between the last check and the next one.
+     */
+    private int stepsBetweenChecks;
+
+    /**
+     * The number of steps left before the next check. Taking a step only
+     * decrements it, so that budgets and cancellation cost almost nothing
+     * between checks.
+     */
+    private int stepsUntilCheck;
+
+    /**
+     * The buffer the results are converted to strings in, reused across
+     * evaluations.
+     */
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Constructs an interpreter with no variables bound.
+     */
+    public Interpreter() {
+        this(Map.of());
+    }
+
+    /**
+     * Constructs an interpreter with values bound to variables.
+     *
+     * @param bindings The values bound to the variables, by name.
+     */
+    public Interpreter(Map<String, Object> bindings) {
+        this(bindings, EvaluationLimits.NONE);
+    }
+
+    /**
+     * Constructs an interpreter with values bound to variables, whose
+     * evaluations are limited.
+     *
+     * @param bindings The values bound to the variables, by name.
+     * @param limits The limits on the evaluations of this interpreter. The
+     *               step budget covers every evaluation over the lifetime of
+     *               the interpreter.
+     */
+    public Interpreter(Map<String, Object> bindings, EvaluationLimits limits) {
+        this.bindings = bindings;
+        this.stepBudget = limits.getStepBudget();
+        this.cancellation = limits.getCancellation();
+        this.sharedSteps = null;
+        this.stepsBetweenChecks = (int) Math.min(CHECK_INTERVAL, this.stepBudget);
+        this.stepsUntilCheck = this.stepsBetweenChecks;
+    }
+
+    /**
+     * Constructs an interpreter with values bound to variables, that takes
+     * part in an evaluation with other evaluators, whose steps are all taken
+     * from the same budget.
+     *
+     * @param bindings The values bound to the variables, by name.
+     * @param steps The budget of the evaluation.
+     */
+    Interpreter(Map<String, Object> bindings, SharedStepBudget steps) {
+        this.bindings = bindings;
+        this.stepBudget = steps.getStepBudget();
+        this.cancellation = steps.getCancellation();
+        this.sharedSteps = steps;
+        // The first step takes the first grant
+        this.stepsBetweenChecks = 0;
+        this.stepsUntilCheck = 0;
+    }
+
     /**
      * Evaluates a Lox expression.
      * <p>
@@ -24,51 +171,70 @@ public class Interpreter implements Visitor<Object> {
      * @param expr The Lox expression to be evaluated.
      */
     public void interpret(Expr expr) {
-        try {
-            Object value = this.evaluate(expr);
-            System.out.println(this.stringify(value));
-        } catch (LoxRuntimeException exception) {
-            throw exception;
-        }
+        System.out.println(this.format(expr));
     }
 
-    @Override
-    public Object visit(Binary expr) {
-        Object left = this.evaluate(expr.getLeft());
-        Object right = this.evaluate(expr.getRight());
+    /**
+     * Evaluates a Lox expression.
+     * <p>
+     * The result of the expression is written as a string to an output sink.
+     * Numbers are written without boxing them or creating any string.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param sink The sink the result is written to.
+     */
+    public void interpret(Expr expr, OutputSink sink) {
+        sink.result(this.format(expr));
+    }
 
-        Token operator = expr.getOperator();
+    /**
+     * Evaluates a Lox expression and converts its result to a string.
+     *
+     * @param expr The Lox expression to be evaluated.
+     *
+     * @return The string representation of the result, in a buffer that is
+     *         reused by the next call.
+     */
+    private StringBuilder format(Expr expr) {
+        StringBuilder line = this.line;
+        line.setLength(0);
 
-        this.checkBinaryOperatorTypes(left, operator, right);
+        long value = this.evaluateLong(expr);
+        if (!this.nonIntegral) {
+            LoxNumberFormatter.format(value, line);
+        } else if (this.nonNumeric) {
+            this.takeNonIntegralResult();
+            stringify(this.takeNonNumericResult(), line);
+        } else {
+            LoxNumberFormatter.format(this.takeNonIntegralResult(), line);
+        }
+        return line;
+    }
 
-        switch (operator.getType()) {
+    @Override
+    public Object visit(Binary expr) {
+        switch (expr.getOperator().getType()) {
             case PLUS:
-                if (left instanceof Double && right instanceof Double) {
-                    return ((Double) left) + ((Double) right);
-                }
-                if (left instanceof String && right instanceof String) {
-                    return ((String) left) + ((String) right);
-                }
             case MINUS:
-                return ((Double) left) - ((Double) right);
             case STAR:
-                return ((Double) left) * ((Double) right);
             case SLASH:
-                return ((Double) left) / ((Double) right);
+                double value = this.evaluateDouble(expr);
+                if (this.nonNumeric) {
+                    return this.takeNonNumericResult();
+                }
+                return value;
             case GREATER:
-                return ((Double) left) > ((Double) right);
             case GREATER_EQUAL:
-                return ((Double) left) >= ((Double) right);
             case LESS:
-                return ((Double) left) < ((Double) right);
             case LESS_EQUAL:
-                return ((Double) left) <= ((Double) right);
             case EQUAL_EQUAL:
-                return equal(left, right);
             case BANG_EQUAL:
-                return !equal(left, right);
+                return this.evaluateBoolean(expr);
             default:
-                throw new LoxUnknownBinaryOperatorRuntimeException(operator);
+                this.step(expr.getOperator());
+                Object left = this.evaluate(expr.getLeft());
+                Object right = this.evaluate(expr.getRight());
+                return OperatorTable.binary(expr.getOperator(), left, right);
         }
     }
 
@@ -79,19 +245,15 @@ public class Interpreter implements Visitor<Object> {
 
     @Override
     public Object visit(Unary expr) {
-        Object right = this.evaluate(expr.getRight());
-        Token operator = expr.getOperator();
-
-        switch (operator.getType()) {
+        switch (expr.getOperator().getType()) {
             case BANG:
-                return truthy(right);
+                return this.evaluateBoolean(expr);
             case MINUS:
-                if (!(right instanceof Double)) {
-                    throw new LoxUnaryOperandTypeRuntimeException(operator);
-                }
-                return -((Double) right);
+                return this.evaluateDouble(expr);
             default:
-                throw new LoxUnknownUnaryOperatorRuntimeException(operator);
+                this.step(expr.getOperator());
+                Object right = this.evaluate(expr.getRight());
+                return OperatorTable.unary(expr.getOperator(), right);
         }
     }
 
@@ -100,6 +262,29 @@ public class Interpreter implements Visitor<Object> {
         return expr.getValue();
     }
 
+    @Override
+    public Object visit(Logical expr) {
+        this.step(expr.getOperator());
+        Object left = this.evaluate(expr.getLeft());
+
+        // The right operand is only evaluated if the left one does not decide
+        if (truthy(left) == (expr.getOperator().getType() == TokenType.OR)) {
+            return left;
+        }
+        return this.evaluate(expr.getRight());
+    }
+
+    @Override
+    public Object visit(Variable expr) {
+        this.step(expr.getName());
+        String name = expr.getName().getLexeme().toString();
+        Object value = this.bindings.get(name);
+        if (value == null && !this.bindings.containsKey(name)) {
+            throw new LoxUndefinedVariableRuntimeException(expr.getName());
+        }
+        return value;
+    }
+
     /**
      * Evaluates an expression.
      * <p>
@@ -108,12 +293,624 @@ public class Interpreter implements Visitor<Object> {
      *
      * @param expr The expression to be evaluated.
      *
-     * @return The result of the evaluation.
+     * @return The result of the evaluation: a {@link Double}, a
+     *         {@link CharSequence} for a string, a {@link Boolean}, or
+     *         {@code null} for {@code nil}.
      */
-    private Object evaluate(Expr expr) {
+    public Object evaluate(Expr expr) {
         return expr.accept(this);
     }
 
+    /**
+     * Evaluates an expression that is expected to produce a number, without
+     * boxing any of the intermediate results.
+     * <p>
+     * The expression is evaluated with {@link #evaluateLong(Expr)}, and its
+     * result is widened to a {@code double} if it was integral.
+     * <p>
+     * If the expression does not produce a number (for example, a string
+     * concatenation), {@link #nonNumeric} is set and the boxed result is held
+     * in {@link #nonNumericResult}, where it must be collected with
+     * {@link #takeNonNumericResult()}. The returned value is meaningless in
+     * that case.
+     *
+     * @param expr The expression to be evaluated.
+     *
+     * @return The numeric result of the evaluation.
+     */
+    private double evaluateDouble(Expr expr) {
+        long integral = this.evaluateLong(expr);
+        if (this.nonIntegral) {
+            return this.takeNonIntegralResult();
+        }
+        return integral;
+    }
+
+    /**
+     * Evaluates an expression that is expected to produce a number, keeping
+     * integral intermediate results in primitive {@code long}.
+     * <p>
+     * Numeric subtrees (numeric literals, negations and arithmetic) are
+     * evaluated directly in primitive values. Any other expression is
+     * evaluated with {@link #evaluate(Expr)}.
+     * <p>
+     * Integral values are only kept as a {@code long} while they are within
+     * {@link #MAX_EXACT_INTEGRAL} in magnitude and are not negative zero.
+     * Within that range, integer arithmetic gives exactly the same results as
+     * floating point arithmetic, so results are the same as if the whole
+     * expression was evaluated with {@code double} values.
+     * <p>
+     * If the expression produces a number that cannot be kept as a
+     * {@code long} (a fraction, an overflow, a division or negative zero),
+     * {@link #nonIntegral} is set and the number is held in
+     * {@link #nonIntegralResult}, where it must be collected with
+     * {@link #takeNonIntegralResult()}. If the expression does not produce a
+     * number at all, {@link #nonNumeric} is also set (see
+     * {@link #evaluateDouble(Expr)}). The returned value is meaningless in
+     * both cases.
+     *
+     * @param expr The expression to be evaluated.
+     *
+     * @return The integral result of the evaluation.
+     */
+    private long evaluateLong(Expr expr) {
+        if (expr instanceof Literal literal) {
+            if (literal.getValue() instanceof Double value) {
+                return this.integralResult(value);
+            }
+            return this.nonNumericResult(literal.getValue());
+        }
+
+        if (expr instanceof Grouping grouping) {
+            return this.evaluateLong(grouping.getExpr());
+        }
+
+        if (expr instanceof Unary unary) {
+            Token operator = unary.getOperator();
+            if (operator.getType() != TokenType.MINUS) {
+                return this.nonNumericResult(this.evaluate(unary));
+            }
+            this.step(operator);
+
+            long right = this.evaluateLong(unary.getRight());
+            if (this.nonIntegral) {
+                double number = this.takeNonIntegralResult();
+                if (this.nonNumeric) {
+                    // Throws, since the operand is not a number
+                    return this.nonNumericResult(OperatorTable.unary(
+                        operator,
+                        this.takeNonNumericResult()
+                    ));
+                }
+                return this.integralResult(-number);
+            }
+            if (right == 0) {
+                // Negating zero gives negative zero, which is not integral
+                return this.nonIntegralResult(-0.0);
+            }
+            return -right;
+        }
+
+        if (expr instanceof Binary binary) {
+            switch (binary.getOperator().getType()) {
+                case PLUS:
+                case MINUS:
+                case STAR:
+                case SLASH:
+                    this.step(binary.getOperator());
+                    return this.evaluateArithmetic(binary);
+                default:
+                    return this.nonNumericResult(this.evaluate(binary));
+            }
+        }
+
+        if (expr instanceof Logical logical) {
+            this.step(logical.getOperator());
+            return this.evaluateLogical(logical);
+        }
+
+        Object value = this.evaluate(expr);
+        if (value instanceof Double number) {
+            // A variable bound to a number
+            return this.integralResult(number);
+        }
+        return this.nonNumericResult(value);
+    }
+
+    /**
+     * Evaluates a logical expression ("and" or "or"), keeping a numeric
+     * result unboxed (see {@link #evaluateLong(Expr)}).
+     * <p>
+     * The right operand is only evaluated if the left one does not decide
+     * the result, meaning that the left operand is falsy for "or" and truthy
+     * for "and". The result is the last operand that was evaluated.
+     *
+     * @param expr The logical expression to be evaluated.
+     *
+     * @return The integral result of the evaluation (see
+     *         {@link #evaluateLong(Expr)}).
+     */
+    private long evaluateLogical(Logical expr) {
+        boolean or = expr.getOperator().getType() == TokenType.OR;
+
+        long left = this.evaluateLong(expr.getLeft());
+        if (!this.nonNumeric) {
+            /*
+             * Numbers are truthy, so "or" results in the left number (which
+             * is still held in the result fields if it is not integral), and
+             * "and" results in the right operand
+             */
+            if (or) {
+                return left;
+            }
+            if (this.nonIntegral) {
+                this.takeNonIntegralResult();
+            }
+            return this.evaluateLong(expr.getRight());
+        }
+
+        this.takeNonIntegralResult();
+        Object leftResult = this.takeNonNumericResult();
+        if (truthy(leftResult) == or) {
+            return this.nonNumericResult(leftResult);
+        }
+        return this.evaluateLong(expr.getRight());
+    }
+
+    /**
+     * Evaluates an arithmetic binary expression (plus, minus, star or slash).
+     * <p>
+     * When both operands are integral, plus, minus and star are performed on
+     * primitive {@code long} values. When both operands are numbers, the
+     * operation is performed on primitive {@code double} values. Otherwise,
+     * the operands are boxed and type checked, and the only valid case left
+     * (concatenation of two strings) is reported through
+     * {@link #nonNumericResult(Object)}.
+     *
+     * @param expr The arithmetic expression to be evaluated.
+     *
+     * @return The integral result of the evaluation (see
+     *         {@link #evaluateLong(Expr)}).
+     */
+    private long evaluateArithmetic(Binary expr) {
+        Token operator = expr.getOperator();
+
+        if (expr.getStaticType() == StaticType.STRING) {
+            /*
+             * Proven to be a concatenation of two strings, so the operands
+             * need no type checks
+             */
+            CharSequence left = (CharSequence) this.evaluate(expr.getLeft());
+            CharSequence right = (CharSequence) this.evaluate(expr.getRight());
+            return this.nonNumericResult(LoxRope.concat(left, right));
+        }
+
+        long left = this.evaluateLong(expr.getLeft());
+        boolean leftIntegral = !this.nonIntegral;
+        double leftNumber = leftIntegral ? left : this.takeNonIntegralResult();
+        boolean leftNumeric = !this.nonNumeric;
+        Object leftResult = this.takeNonNumericResult();
+
+        long right = this.evaluateLong(expr.getRight());
+        boolean rightIntegral = !this.nonIntegral;
+        double rightNumber = rightIntegral ? right : this.takeNonIntegralResult();
+        boolean rightNumeric = !this.nonNumeric;
+        Object rightResult = this.takeNonNumericResult();
+
+        if (leftIntegral && rightIntegral) {
+            /*
+             * Both operands are within MAX_EXACT_INTEGRAL in magnitude, so
+             * plus and minus cannot overflow a long.
+             */
+            switch (operator.getType()) {
+                case PLUS:
+                    return this.integralResult(left + right, leftNumber + rightNumber);
+                case MINUS:
+                    return this.integralResult(left - right, leftNumber - rightNumber);
+                case STAR:
+                    long product = left * right;
+                    if (
+                        Math.multiplyHigh(left, right) != (product >> 63)
+                            || (product == 0 && (left < 0 || right < 0))
+                    ) {
+                        // Overflow or negative zero
+                        return this.integralResult(leftNumber * rightNumber);
+                    }
+                    return this.integralResult(product, leftNumber * rightNumber);
+            }
+        }
+
+        if (leftNumeric && rightNumeric) {
+            switch (operator.getType()) {
+                case PLUS:
+                    return this.integralResult(leftNumber + rightNumber);
+                case MINUS:
+                    return this.integralResult(leftNumber - rightNumber);
+                case STAR:
+                    return this.integralResult(leftNumber * rightNumber);
+                case SLASH:
+                    return this.nonIntegralResult(leftNumber / rightNumber);
+            }
+        }
+
+        Object boxedLeft = leftNumeric ? (Object) leftNumber : leftResult;
+        Object boxedRight = rightNumeric ? (Object) rightNumber : rightResult;
+
+        /*
+         * At least one operand is not a number, so this throws unless it is a
+         * concatenation of two strings
+         */
+        return this.nonNumericResult(
+            OperatorTable.binary(operator, boxedLeft, boxedRight)
+        );
+    }
+
+    /**
+     * Evaluates an expression and converts its result to a boolean value,
+     * without boxing any of the intermediate results.
+     * <p>
+     * Comparisons of numeric subtrees are performed on primitive values (see
+     * {@link #evaluateLong(Expr)}). Any other expression is evaluated with
+     * {@link #evaluate(Expr)} and converted with {@link #truthy(Object)}.
+     *
+     * @param expr The expression to be evaluated.
+     *
+     * @return The truthiness of the result of the evaluation.
+     */
+    private boolean evaluateBoolean(Expr expr) {
+        if (expr instanceof Literal literal) {
+            return truthy(literal.getValue());
+        }
+
+        if (expr instanceof Grouping grouping) {
+            return this.evaluateBoolean(grouping.getExpr());
+        }
+
+        if (expr instanceof Unary unary) {
+            if (unary.getOperator().getType() == TokenType.BANG) {
+                this.step(unary.getOperator());
+                return this.evaluateBoolean(unary.getRight());
+            }
+            return truthy(this.evaluate(unary));
+        }
+
+        if (expr instanceof Binary binary) {
+            switch (binary.getOperator().getType()) {
+                case GREATER:
+                case GREATER_EQUAL:
+                case LESS:
+                case LESS_EQUAL:
+                case EQUAL_EQUAL:
+                case BANG_EQUAL:
+                    this.step(binary.getOperator());
+                    return this.evaluateComparison(binary);
+                default:
+                    return truthy(this.evaluate(binary));
+            }
+        }
+
+        if (expr instanceof Logical logical) {
+            this.step(logical.getOperator());
+            // The right operand is only evaluated if the left one does not decide
+            boolean left = this.evaluateBoolean(logical.getLeft());
+            if (left == (logical.getOperator().getType() == TokenType.OR)) {
+                return left;
+            }
+            return this.evaluateBoolean(logical.getRight());
+        }
+
+        return truthy(this.evaluate(expr));
+    }
+
+    /**
+     * Evaluates a comparison or equality binary expression.
+     * <p>
+     * When both operands are integral the comparison is performed on
+     * primitive {@code long} values, and when both operands are numbers it is
+     * performed on primitive {@code double} values. Otherwise, the operands
+     * are boxed and compared (or type checked) as Lox objects.
+     *
+     * @param expr The comparison expression to be evaluated.
+     *
+     * @return The result of the comparison.
+     */
+    private boolean evaluateComparison(Binary expr) {
+        Token operator = expr.getOperator();
+
+        StaticType leftType = expr.getLeft().getStaticType();
+        StaticType rightType = expr.getRight().getStaticType();
+        if (
+            expr.getStaticType() == StaticType.BOOLEAN
+                && leftType != StaticType.UNKNOWN
+                && rightType != StaticType.UNKNOWN
+                && (operator.getType() == TokenType.EQUAL_EQUAL
+                    || operator.getType() == TokenType.BANG_EQUAL)
+                && !(leftType == StaticType.NUMBER && rightType == StaticType.NUMBER)
+        ) {
+            boolean equal = this.evaluateProvenEquality(expr);
+            return operator.getType() == TokenType.EQUAL_EQUAL ? equal : !equal;
+        }
+
+        long left = this.evaluateLong(expr.getLeft());
+        boolean leftIntegral = !this.nonIntegral;
+        double leftNumber = leftIntegral ? left : this.takeNonIntegralResult();
+        boolean leftNumeric = !this.nonNumeric;
+        Object leftResult = this.takeNonNumericResult();
+
+        long right = this.evaluateLong(expr.getRight());
+        boolean rightIntegral = !this.nonIntegral;
+        double rightNumber = rightIntegral ? right : this.takeNonIntegralResult();
+        boolean rightNumeric = !this.nonNumeric;
+        Object rightResult = this.takeNonNumericResult();
+
+        if (leftIntegral && rightIntegral) {
+            switch (operator.getType()) {
+                case GREATER:
+                    return left > right;
+                case GREATER_EQUAL:
+                    return left >= right;
+                case LESS:
+                    return left < right;
+                case LESS_EQUAL:
+                    return left <= right;
+                case EQUAL_EQUAL:
+                    return left == right;
+                case BANG_EQUAL:
+                    return left != right;
+            }
+        }
+
+        if (leftNumeric && rightNumeric) {
+            switch (operator.getType()) {
+                case GREATER:
+                    return leftNumber > rightNumber;
+                case GREATER_EQUAL:
+                    return leftNumber >= rightNumber;
+                case LESS:
+                    return leftNumber < rightNumber;
+                case LESS_EQUAL:
+                    return leftNumber <= rightNumber;
+                case EQUAL_EQUAL:
+                    return this.equal(leftNumber, rightNumber);
+                case BANG_EQUAL:
+                    return !this.equal(leftNumber, rightNumber);
+            }
+        }
+
+        Object boxedLeft = leftNumeric ? (Object) leftNumber : leftResult;
+        Object boxedRight = rightNumeric ? (Object) rightNumber : rightResult;
+
+        /*
+         * At least one operand is not a number, so this throws for every
+         * operator except equality and inequality
+         */
+        return (Boolean) OperatorTable.binary(operator, boxedLeft, boxedRight);
+    }
+
+    /**
+     * Checks if the operands of an equality expression that was proven
+     * well-typed (see {@link StaticType}) are equal, without type checking
+     * them at runtime.
+     * <p>
+     * Operands of different static types are never equal, and operands that
+     * are both {@code nil} always are. Since proven subtrees cannot fail at
+     * runtime, they are not evaluated in these cases, unless there is a step
+     * budget (see {@link #takeStepsOf(Expr, Expr)}).
+     *
+     * @param expr The equality or inequality expression.
+     *
+     * @return {@code true} if the operands are equal, {@code false}
+     *         otherwise.
+     */
+    private boolean evaluateProvenEquality(Binary expr) {
+        StaticType type = expr.getLeft().getStaticType();
+        if (type != expr.getRight().getStaticType()) {
+            this.takeStepsOf(expr.getLeft(), expr.getRight());
+            return false;
+        }
+
+        switch (type) {
+            case NIL:
+                this.takeStepsOf(expr.getLeft(), expr.getRight());
+                return true;
+            case BOOLEAN:
+                return this.evaluateBoolean(expr.getLeft())
+                    == this.evaluateBoolean(expr.getRight());
+            case STRING:
+                CharSequence left = (CharSequence) this.evaluate(expr.getLeft());
+                CharSequence right = (CharSequence) this.evaluate(expr.getRight());
+                return left.length() == right.length()
+                    && CharSequence.compare(left, right) == 0;
+            default:
+                return this.equal(
+                    this.evaluateDouble(expr.getLeft()),
+                    this.evaluateDouble(expr.getRight())
+                );
+        }
+    }
+
+    /**
+     * Takes the steps of the operands of an operation whose result does not
+     * depend on their values, by evaluating them, if there is a step budget,
+     * so that the budget runs out exactly as if the operation used them.
+     * Without a budget, skipping them cannot be observed.
+     *
+     * @param left The left operand, which cannot fail at runtime.
+     * @param right The right operand, which cannot fail at runtime.
+     */
+    private void takeStepsOf(Expr left, Expr right) {
+        if (this.stepBudget != Long.MAX_VALUE) {
+            left.accept(this);
+            right.accept(this);
+        }
+    }
+
+    /**
+     * Gives the steps granted and not taken back to the shared budget, if
+     * any, when this interpreter is done with its part of the evaluation.
+     */
+    void releaseSteps() {
+        if (this.sharedSteps != null) {
+            this.sharedSteps.release(this.stepsBetweenChecks, this.stepsUntilCheck);
+            this.stepsUntilCheck = 0;
+            this.stepsBetweenChecks = 0;
+        }
+    }
+
+    /**
+     * Takes a step of the evaluation (see {@link EvaluationLimits}), checking
+     * the budget and the cancellation token every {@link #CHECK_INTERVAL}
+     * steps.
+     *
+     * @param token The token of the operation being evaluated.
+     */
+    void step(Token token) {
+        if (--this.stepsUntilCheck < 0) {
+            this.check(token);
+        }
+    }
+
+    /**
+     * Checks the budget and the cancellation token when the steps allowed
+     * since the last check were taken, and allows the next steps.
+     *
+     * @param token The token of the operation being evaluated.
+     *
+     * @throws LoxBudgetExceededRuntimeException If taking one more step would
+     *                                           exceed the budget.
+     * @throws LoxCancelledRuntimeException If the evaluation was cancelled.
+     */
+    private void check(Token token) {
+        if (this.sharedSteps != null) {
+            int taken = this.stepsBetweenChecks;
+            // Left at zero if no steps are granted, so nothing is released
+            this.stepsUntilCheck = 0;
+            this.stepsBetweenChecks = 0;
+            this.stepsBetweenChecks = this.sharedSteps.grant(token, taken);
+            this.stepsUntilCheck = this.stepsBetweenChecks;
+            return;
+        }
+
+        this.stepsTaken += this.stepsBetweenChecks;
+        if (this.stepsTaken >= this.stepBudget) {
+            this.stepsUntilCheck = 0;
+            this.stepsBetweenChecks = 0;
+            throw new LoxBudgetExceededRuntimeException(token, this.stepBudget);
+        }
+        if (this.cancellation != null && this.cancellation.isCancelled()) {
+            this.stepsUntilCheck = 0;
+            this.stepsBetweenChecks = 0;
+            throw new LoxCancelledRuntimeException(token);
+        }
+
+        // This step is taken, and the next check is due after the next ones
+        this.stepsTaken++;
+        this.stepsBetweenChecks = (int) Math.min(
+            CHECK_INTERVAL,
+            this.stepBudget - this.stepsTaken
+        );
+        this.stepsUntilCheck = this.stepsBetweenChecks;
+    }
+
+    /**
+     * Reports the result of an integer operation from
+     * {@link #evaluateLong(Expr)}, falling back to the result of the same
+     * operation on {@code double} values if the integer result is out of
+     * range.
+     *
+     * @param result The result of the integer operation.
+     * @param fallback The result of the same operation on {@code double}
+     *                 values.
+     *
+     * @return The integral result, or a placeholder value if the result is
+     *         out of range.
+     */
+    private long integralResult(long result, double fallback) {
+        if (result < -MAX_EXACT_INTEGRAL || result > MAX_EXACT_INTEGRAL) {
+            return this.nonIntegralResult(fallback);
+        }
+        return result;
+    }
+
+    /**
+     * Reports a numeric result from {@link #evaluateLong(Expr)}, as a
+     * {@code long} if it is integral and within range, or as a
+     * {@code double} otherwise.
+     *
+     * @param number The numeric result.
+     *
+     * @return The integral result, or a placeholder value if the result is
+     *         not integral.
+     */
+    private long integralResult(double number) {
+        long integral = (long) number;
+        if (
+            integral != number
+                || integral < -MAX_EXACT_INTEGRAL
+                || integral > MAX_EXACT_INTEGRAL
+                || (integral == 0 && Double.doubleToRawLongBits(number) != 0L)
+        ) {
+            return this.nonIntegralResult(number);
+        }
+        return integral;
+    }
+
+    /**
+     * Records that the expression being evaluated by
+     * {@link #evaluateLong(Expr)} produced a number that cannot be kept as a
+     * {@code long}.
+     *
+     * @param result The numeric result of the expression.
+     *
+     * @return A placeholder value to be returned from
+     *         {@link #evaluateLong(Expr)}.
+     */
+    private long nonIntegralResult(double result) {
+        this.nonIntegral = true;
+        this.nonIntegralResult = result;
+        return 0;
+    }
+
+    /**
+     * Collects the numeric result recorded by
+     * {@link #nonIntegralResult(double)} and clears it.
+     *
+     * @return The numeric result.
+     */
+    private double takeNonIntegralResult() {
+        this.nonIntegral = false;
+        return this.nonIntegralResult;
+    }
+
+    /**
+     * Records that the expression being evaluated by
+     * {@link #evaluateLong(Expr)} did not produce a number.
+     *
+     * @param result The boxed result of the expression.
+     *
+     * @return A placeholder value to be returned from
+     *         {@link #evaluateLong(Expr)}.
+     */
+    private long nonNumericResult(Object result) {
+        this.nonNumeric = true;
+        this.nonNumericResult = result;
+        return this.nonIntegralResult(Double.NaN);
+    }
+
+    /**
+     * Collects the boxed result recorded by {@link #nonNumericResult(Object)}
+     * and clears it.
+     *
+     * @return The boxed result, or {@code null} if the last expression
+     *         evaluated by {@link #evaluateLong(Expr)} produced a number.
+     */
+    private Object takeNonNumericResult() {
+        Object result = this.nonNumericResult;
+        this.nonNumeric = false;
+        this.nonNumericResult = null;
+        return result;
+    }
+
     /**
      * Converts a Lox object to a boolean value.
      * <p>
@@ -125,7 +922,7 @@ public class Interpreter implements Visitor<Object> {
      *
      * @return The boolean representation of the Lox object.
      */
-    private Boolean truthy(Object object) {
+    static boolean truthy(Object object) {
         if (object == null) {
             return false;
         }
@@ -136,25 +933,20 @@ public class Interpreter implements Visitor<Object> {
     }
 
     /**
-     * Checks if two Lox objects are equal.
+     * Checks if two Lox numbers are equal.
      * <p>
-     * Two Lox objects are considered equal if they are both {@code null} or if
-     * {@code a.equals(b)} returns {@code true}.
+     * This is consistent with the equality of boxed numbers, meaning
+     * {@code NaN} is equal to itself and {@code 0} is not equal to
+     * {@code -0}.
      *
-     * @param a The first Lox object.
-     * @param b The second Lox object.
+     * @param a The first Lox number.
+     * @param b The second Lox number.
      *
-     * @return {@code true} if the two Lox objects are equal, {@code false}
+     * @return {@code true} if the two Lox numbers are equal, {@code false}
      *         otherwise.
      */
-    private Boolean equal(Object a, Object b) {
-        if (a == null && b == null) {
-            return true;
-        }
-        if (a == null || b == null) {
-            return false;
-        }
-        return a.equals(b);
+    private boolean equal(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
     }
 
     /**
@@ -164,67 +956,29 @@ public class Interpreter implements Visitor<Object> {
      *
      * @return The string representation of the Lox object.
      */
-    private String stringify(Object object) {
+    public static String stringify(Object object) {
         if (object == null) {
             return "nil";
         }
 
-        String text = object.toString();
-
-        if (object instanceof Double) {
-            if (text.endsWith(".0")) {
-                text = text.substring(0, text.length() - 2);
-            }
+        if (object instanceof Double number) {
+            return LoxNumberFormatter.format(number);
         }
 
-        return text;
+        return object.toString();
     }
 
     /**
-     * Checks the operand types of a binary operation (represented by the
-     * operator) to ensure that the types are correct. A
-     * {@link LoxBinaryOperandsTypeRuntimeException} is thrown if the types are
-     * incorrect.
-     *
-     * @param left The left operand.
-     * @param operator The operator.
-     * @param right The right operand.
+     * Appends the string representation of a Lox object to a buffer.
      *
-     * @throws LoxBinaryOperandsTypeRuntimeException If the types of the
-     *                                               operands are incorrect
-     *                                               with respect to the
-     *                                               operator.
+     * @param object The Lox object to be converted to a string.
+     * @param buffer The buffer the string is appended to.
      */
-    private void checkBinaryOperatorTypes(Object left, Token operator, Object right) throws LoxBinaryOperandsTypeRuntimeException {
-        switch (operator.getType()) {
-            case PLUS:
-                // Plus operation can operate on two numbers or two strings
-                if (
-                    !(left instanceof String && right instanceof String)
-                        && !(left instanceof Double && right instanceof Double)
-                ) {
-                    throw new LoxPlusOperandsTypeRuntimeRuntimeException(
-                        operator
-                    );
-                }
-                return;
-            case MINUS:
-            case STAR:
-            case SLASH:
-            case GREATER:
-            case GREATER_EQUAL:
-            case LESS:
-            case LESS_EQUAL:
-                // These operations can operate on two numbers
-                if (!(left instanceof Double && right instanceof Double)) {
-                    throw new LoxBinaryOperandsTypeRuntimeException(operator);
-                }
-                return;
-            case EQUAL_EQUAL:
-            case BANG_EQUAL:
-            default:
-                // No checks needed because these operations can operate on any
-                // types
+    static void stringify(Object object, StringBuilder buffer) {
+        if (object instanceof Double number) {
+            LoxNumberFormatter.format(number, buffer);
+        } else {
+            buffer.append(stringify(object));
         }
     }
 
@@ -0,0 +1,513 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.cache.LruCache;
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.interpreter.exception.LoxUndefinedVariableRuntimeException;
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An evaluator of Lox expressions that caches the result of every operation
+ * subtree.
+ * <p>
+ * Lox expressions are pure, so a subtree always evaluates to the same value.
+ * Results are cached by the structure of the subtree (its operators and
+ * literals), not by the identity of its nodes, so a repeated subtree is
+ * evaluated once, whether it repeats within an expression or across
+ * expressions. The cache is kept between calls to {@link #evaluate(Expr)}
+ * and is bounded, evicting the least recently used results when it is full.
+ * <p>
+ * Literals and groupings are not cached, since evaluating them is cheaper
+ * than looking them up. Runtime errors are not cached either, they are
+ * thrown again when the subtree is evaluated again. Subtrees that read a
+ * variable are not cached, since their result depends on the values bound to
+ * the variables.
+ * <p>
+ * Every operation evaluated or looked up takes a step (see
+ * {@link EvaluationLimits}).
+ * <p>
+ * The evaluator is thread-safe. The cache is split into {@link #STRIPES}
+ * stripes, each guarded by its own lock, which is only held to look up or
+ * store a result, so concurrent evaluations rarely wait for each other.
+ */
+public class MemoizingInterpreter {
+
+    /**
+     * The default maximum number of cached results.
+     */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    /**
+     * The maximum number of stripes the cache is split into.
+     */
+    static final int STRIPES = 16;
+
+    /**
+     * Placeholder of the {@code nil} result in the cache, which cannot store
+     * {@code null} values.
+     */
+    private static final Object NIL = new Object();
+
+    /**
+     * The stripes of the cache of the results, keyed by the structure of the
+     * subtree. A result is stored in the stripe picked by the hash of its key.
+     */
+    private final List<LruCache<StructuralKey, Object>> stripes;
+
+    public MemoizingInterpreter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MemoizingInterpreter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                "Cache capacity must be positive, got " + capacity
+            );
+        }
+        int count = Math.min(STRIPES, capacity);
+        List<LruCache<StructuralKey, Object>> stripes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // The first stripes take the remainder of the capacity
+            stripes.add(new LruCache<>(capacity / count + (i < capacity % count ? 1 : 0)));
+        }
+        this.stripes = List.copyOf(stripes);
+    }
+
+    /**
+     * Evaluates a Lox expression.
+     * <p>
+     * The result of the expression is printed as a string.
+     *
+     * @param expr The Lox expression to be evaluated.
+     */
+    public void interpret(Expr expr) {
+        System.out.println(Interpreter.stringify(this.evaluate(expr)));
+    }
+
+    /**
+     * Evaluates a Lox expression.
+     * <p>
+     * The result of the expression is written as a string to an output sink.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param sink The sink the result is written to.
+     */
+    public void interpret(Expr expr, OutputSink sink) {
+        this.interpret(expr, Map.of(), sink, EvaluationLimits.NONE);
+    }
+
+    /**
+     * Evaluates a Lox expression with values bound to its variables, within
+     * limits.
+     * <p>
+     * The result of the expression is written as a string to an output sink.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param bindings The values bound to the variables, by name.
+     * @param sink The sink the result is written to.
+     * @param limits The limits on the evaluation.
+     */
+    public void interpret(
+        Expr expr,
+        Map<String, Object> bindings,
+        OutputSink sink,
+        EvaluationLimits limits
+    ) {
+        sink.result(Interpreter.stringify(this.evaluate(expr, bindings, limits)));
+    }
+
+    /**
+     * Evaluates a Lox expression, reusing the cached results of its subtrees.
+     *
+     * @param expr The Lox expression to be evaluated.
+     *
+     * @return The result of the expression.
+     */
+    public Object evaluate(Expr expr) {
+        return this.evaluate(expr, Map.of(), EvaluationLimits.NONE);
+    }
+
+    /**
+     * Evaluates a Lox expression with values bound to its variables, within
+     * limits, reusing the cached results of its subtrees.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param bindings The values bound to the variables, by name.
+     * @param limits The limits on the evaluation.
+     *
+     * @return The result of the expression.
+     */
+    public Object evaluate(
+        Expr expr,
+        Map<String, Object> bindings,
+        EvaluationLimits limits
+    ) {
+        return new Evaluation(bindings, new SharedStepBudget(limits)).run(expr);
+    }
+
+    /**
+     * @return The size, capacity, hit, miss, and eviction statistics of the
+     *         cache, summed over its stripes.
+     */
+    public String getCacheStatistics() {
+        long size = 0;
+        long capacity = 0;
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        for (LruCache<StructuralKey, Object> stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+                capacity += stripe.getCapacity();
+                hits += stripe.getHits();
+                misses += stripe.getMisses();
+                evictions += stripe.getEvictions();
+            }
+        }
+        return String.format(
+            "%d/%d entries, %d hits, %d misses, %d evictions",
+            size,
+            capacity,
+            hits,
+            misses,
+            evictions
+        );
+    }
+
+    /**
+     * Looks up the cached result of a subtree.
+     *
+     * @param key The structural key of the subtree.
+     *
+     * @return The cached result, {@link #NIL} for {@code nil}, or
+     *         {@code null} if the result is not cached.
+     */
+    private Object lookup(StructuralKey key) {
+        LruCache<StructuralKey, Object> stripe = this.stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * Caches the result of a subtree.
+     *
+     * @param key The structural key of the subtree.
+     * @param result The result of the subtree.
+     *
+     * @return The result of the subtree.
+     */
+    private Object store(StructuralKey key, Object result) {
+        LruCache<StructuralKey, Object> stripe = this.stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, result == null ? NIL : result);
+        }
+        return result;
+    }
+
+    private LruCache<StructuralKey, Object> stripe(StructuralKey key) {
+        // The low bits of the structural hashes are not spread well
+        int hash = key.hash ^ (key.hash >>> 16);
+        return this.stripes.get(Math.floorMod(hash, this.stripes.size()));
+    }
+
+    /**
+     * The state of a single evaluation, which is confined to the thread
+     * running it.
+     */
+    private final class Evaluation implements Visitor<Object> {
+
+        /**
+         * The values bound to the variables, by name.
+         */
+        private final Map<String, Object> bindings;
+
+        /**
+         * The budget of the evaluation.
+         */
+        private final SharedStepBudget steps;
+
+        /**
+         * The structural keys of the nodes of the expression, computed once
+         * before evaluating it, or {@code null} for the nodes whose subtree
+         * reads a variable.
+         */
+        private final Map<Expr, StructuralKey> keys = new IdentityHashMap<>();
+
+        /**
+         * The number of steps left before the budget is checked again.
+         */
+        private int stepsUntilCheck = 0;
+
+        /**
+         * The number of steps granted by the last check.
+         */
+        private int stepsBetweenChecks = 0;
+
+        private Evaluation(Map<String, Object> bindings, SharedStepBudget steps) {
+            this.bindings = bindings;
+            this.steps = steps;
+        }
+
+        private Object run(Expr expr) {
+            this.computeKey(expr);
+            return expr.accept(this);
+        }
+
+        @Override
+        public Object visit(Binary expr) {
+            this.step(expr.getOperator());
+            StructuralKey key = this.key(expr);
+            Object cached = key == null ? null : MemoizingInterpreter.this.lookup(key);
+            if (cached != null) {
+                return cached == NIL ? null : cached;
+            }
+
+            Object left = expr.getLeft().accept(this);
+            Object right = expr.getRight().accept(this);
+            return this.store(
+                key,
+                OperatorTable.binary(expr.getOperator(), left, right)
+            );
+        }
+
+        @Override
+        public Object visit(Grouping expr) {
+            return expr.getExpr().accept(this);
+        }
+
+        @Override
+        public Object visit(Unary expr) {
+            this.step(expr.getOperator());
+            StructuralKey key = this.key(expr);
+            Object cached = key == null ? null : MemoizingInterpreter.this.lookup(key);
+            if (cached != null) {
+                return cached == NIL ? null : cached;
+            }
+
+            Object right = expr.getRight().accept(this);
+            return this.store(
+                key,
+                OperatorTable.unary(expr.getOperator(), right)
+            );
+        }
+
+        @Override
+        public Object visit(Literal expr) {
+            return expr.getValue();
+        }
+
+        @Override
+        public Object visit(Logical expr) {
+            this.step(expr.getOperator());
+            StructuralKey key = this.key(expr);
+            Object cached = key == null ? null : MemoizingInterpreter.this.lookup(key);
+            if (cached != null) {
+                return cached == NIL ? null : cached;
+            }
+
+            boolean or = expr.getOperator().getType() == TokenType.OR;
+            Object result = expr.getLeft().accept(this);
+            if (Interpreter.truthy(result) != or) {
+                result = expr.getRight().accept(this);
+            }
+            return this.store(key, result);
+        }
+
+        @Override
+        public Object visit(Variable expr) {
+            this.step(expr.getName());
+            String name = expr.getName().getLexeme().toString();
+            Object value = this.bindings.get(name);
+            if (value == null && !this.bindings.containsKey(name)) {
+                throw new LoxUndefinedVariableRuntimeException(expr.getName());
+            }
+            return value;
+        }
+
+        /**
+         * Takes a step of the evaluation, checking the budget and the
+         * cancellation token when the steps granted were taken.
+         *
+         * @param token The token of the operation being evaluated.
+         */
+        private void step(Token token) {
+            if (--this.stepsUntilCheck < 0) {
+                int taken = this.stepsBetweenChecks;
+                // Left at zero if no steps are granted
+                this.stepsUntilCheck = 0;
+                this.stepsBetweenChecks = 0;
+                this.stepsBetweenChecks = this.steps.grant(token, taken);
+                this.stepsUntilCheck = this.stepsBetweenChecks;
+            }
+        }
+
+        /**
+         * Caches the result of a subtree, unless it reads a variable.
+         *
+         * @param key The structural key of the subtree, or {@code null} if
+         *            it reads a variable.
+         * @param result The result of the subtree.
+         *
+         * @return The result of the subtree.
+         */
+        private Object store(StructuralKey key, Object result) {
+            return key == null ? result : MemoizingInterpreter.this.store(key, result);
+        }
+
+        /**
+         * @return The structural key of a subtree, or {@code null} if it
+         *         reads a variable and cannot be cached.
+         */
+        private StructuralKey key(Expr expr) {
+            return this.keys.get(expr);
+        }
+
+        /**
+         * Computes the structural keys of every node of an expression.
+         *
+         * @param expr The expression whose keys are computed.
+         *
+         * @return The structural key of the expression, or {@code null} if
+         *         it reads a variable.
+         */
+        private StructuralKey computeKey(Expr expr) {
+            StructuralKey key;
+            if (expr instanceof Binary binary) {
+                key = StructuralKey.of(
+                    binary.getOperator().getType(),
+                    this.computeKey(binary.getLeft()),
+                    this.computeKey(binary.getRight())
+                );
+            } else if (expr instanceof Logical logical) {
+                key = StructuralKey.of(
+                    logical.getOperator().getType(),
+                    this.computeKey(logical.getLeft()),
+                    this.computeKey(logical.getRight())
+                );
+            } else if (expr instanceof Unary unary) {
+                key = StructuralKey.of(
+                    unary.getOperator().getType(),
+                    this.computeKey(unary.getRight())
+                );
+            } else if (expr instanceof Grouping grouping) {
+                // Groupings do not change the result
+                key = this.computeKey(grouping.getExpr());
+            } else if (expr instanceof Variable) {
+                key = null;
+            } else {
+                key = StructuralKey.of(((Literal) expr).getValue());
+            }
+            this.keys.put(expr, key);
+            return key;
+        }
+
+    }
+
+    /**
+     * A cache key that compares subtrees by their structure: their operators
+     * and literals.
+     * <p>
+     * The key is detached from the subtree it was created for. It only holds
+     * operator types, the keys of the operands, and copies of literal values,
+     * so that cached results do not keep syntax trees, tokens, or the source
+     * code that string literals are views over (see
+     * {@link com.danieldigiovanni.interpreter.value.LoxSourceSlice}) alive.
+     */
+    private static final class StructuralKey {
+
+        /**
+         * The operator type of an operation, or the value of a literal
+         * ({@link #NIL} for {@code nil}, and strings copied to a
+         * {@link String}).
+         */
+        private final Object label;
+
+        /**
+         * The key of the left operand of a binary operation, or {@code null}.
+         */
+        private final StructuralKey left;
+
+        /**
+         * The key of the only operand of a unary operation, or of the right
+         * operand of a binary operation, or {@code null} for a literal.
+         */
+        private final StructuralKey right;
+
+        private final int hash;
+
+        private StructuralKey(Object label, StructuralKey left, StructuralKey right, int hash) {
+            this.label = label;
+            this.left = left;
+            this.right = right;
+            this.hash = hash;
+        }
+
+        /**
+         * @return The key of a binary operation, or {@code null} if either
+         *         operand reads a variable.
+         */
+        static StructuralKey of(TokenType operator, StructuralKey left, StructuralKey right) {
+            if (left == null || right == null) {
+                return null;
+            }
+            int hash = 31 * (31 * operator.ordinal() + left.hash) + right.hash;
+            return new StructuralKey(operator, left, right, hash);
+        }
+
+        /**
+         * @return The key of a unary operation, or {@code null} if its
+         *         operand reads a variable.
+         */
+        static StructuralKey of(TokenType operator, StructuralKey right) {
+            if (right == null) {
+                return null;
+            }
+            return new StructuralKey(operator, null, right, 31 * operator.ordinal() + right.hash);
+        }
+
+        /**
+         * @return The key of a literal.
+         */
+        static StructuralKey of(Object value) {
+            Object label = value == null
+                ? NIL
+                : value instanceof CharSequence string ? string.toString() : value;
+            return new StructuralKey(label, null, null, label.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            // Numbers are compared by their bits, so 0 and -0 are different
+            return object instanceof StructuralKey other
+                && this.hash == other.hash
+                && this.label.equals(other.label)
+                && Objects.equals(this.left, other.left)
+                && Objects.equals(this.right, other.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,281 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.interpreter.exception.LoxBinaryOperandsTypeRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxPlusOperandsTypeRuntimeRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUnaryOperandTypeRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUnknownBinaryOperatorRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUnknownUnaryOperatorRuntimeException;
+import com.danieldigiovanni.interpreter.value.LoxRope;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+/**
+ * Precomputed dispatch tables of the unary and binary operations on boxed Lox
+ * values.
+ * <p>
+ * Every combination of operator and operand types maps to a handler that is
+ * specialized for those types, including handlers that throw the type error
+ * for invalid combinations. This means that type checking and executing an
+ * operation takes a single indexed lookup, instead of switching on the
+ * operator and checking the operand types separately.
+ */
+final class OperatorTable {
+
+    /*
+     * Type tags of boxed Lox values
+     */
+    static final int NIL = 0;
+    static final int BOOLEAN = 1;
+    static final int NUMBER = 2;
+    static final int STRING = 3;
+
+    /**
+     * The number of type tags.
+     */
+    private static final int TYPE_COUNT = 4;
+
+    /**
+     * The number of operators (the table is indexed by all token types, even
+     * if most of them are not operators).
+     */
+    private static final int OPERATOR_COUNT = TokenType.values().length;
+
+    /**
+     * Handler of a binary operation on operands of specific types.
+     */
+    @FunctionalInterface
+    interface BinaryHandler {
+
+        Object apply(Token operator, Object left, Object right);
+
+    }
+
+    /**
+     * Handler of a unary operation on an operand of a specific type.
+     */
+    @FunctionalInterface
+    interface UnaryHandler {
+
+        Object apply(Token operator, Object right);
+
+    }
+
+    /**
+     * The binary handlers, indexed by {@link #binaryIndex(TokenType, int, int)}.
+     */
+    private static final BinaryHandler[] BINARY =
+        new BinaryHandler[OPERATOR_COUNT * TYPE_COUNT * TYPE_COUNT];
+
+    /**
+     * The unary handlers, indexed by {@link #unaryIndex(TokenType, int)}.
+     */
+    private static final UnaryHandler[] UNARY =
+        new UnaryHandler[OPERATOR_COUNT * TYPE_COUNT];
+
+    static {
+        // Every token type that is not an operator is an unknown operator
+        for (TokenType operator : TokenType.values()) {
+            fillBinary(operator, (op, left, right) -> {
+                throw new LoxUnknownBinaryOperatorRuntimeException(op);
+            });
+            fillUnary(operator, (op, right) -> {
+                throw new LoxUnknownUnaryOperatorRuntimeException(op);
+            });
+        }
+
+        // Plus operation can operate on two numbers or two strings
+        fillBinary(TokenType.PLUS, (op, left, right) -> {
+            throw new LoxPlusOperandsTypeRuntimeRuntimeException(op);
+        });
+        setBinary(TokenType.PLUS, NUMBER, NUMBER, (op, left, right) ->
+            (Double) left + (Double) right
+        );
+        setBinary(TokenType.PLUS, STRING, STRING, (op, left, right) ->
+            LoxRope.concat((CharSequence) left, (CharSequence) right)
+        );
+
+        // These operations can operate on two numbers
+        fillNumeric(TokenType.MINUS, (op, left, right) ->
+            (Double) left - (Double) right
+        );
+        fillNumeric(TokenType.STAR, (op, left, right) ->
+            (Double) left * (Double) right
+        );
+        fillNumeric(TokenType.SLASH, (op, left, right) ->
+            (Double) left / (Double) right
+        );
+        fillNumeric(TokenType.GREATER, (op, left, right) ->
+            (Double) left > (Double) right
+        );
+        fillNumeric(TokenType.GREATER_EQUAL, (op, left, right) ->
+            (Double) left >= (Double) right
+        );
+        fillNumeric(TokenType.LESS, (op, left, right) ->
+            (Double) left < (Double) right
+        );
+        fillNumeric(TokenType.LESS_EQUAL, (op, left, right) ->
+            (Double) left <= (Double) right
+        );
+
+        /*
+         * Equality and inequality can operate on any types, and values of
+         * different types are never equal
+         */
+        fillBinary(TokenType.EQUAL_EQUAL, (op, left, right) -> false);
+        fillBinary(TokenType.BANG_EQUAL, (op, left, right) -> true);
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            int sameType = type;
+            setBinary(TokenType.EQUAL_EQUAL, type, type, (op, left, right) ->
+                equalSameType(sameType, left, right)
+            );
+            setBinary(TokenType.BANG_EQUAL, type, type, (op, left, right) ->
+                !equalSameType(sameType, left, right)
+            );
+        }
+
+        // Negation can operate on a number
+        fillUnary(TokenType.MINUS, (op, right) -> {
+            throw new LoxUnaryOperandTypeRuntimeException(op);
+        });
+        setUnary(TokenType.MINUS, NUMBER, (op, right) -> -(Double) right);
+
+        // Bang can operate on any type, using its truthiness
+        setUnary(TokenType.BANG, NIL, (op, right) -> false);
+        setUnary(TokenType.BANG, BOOLEAN, (op, right) -> right);
+        setUnary(TokenType.BANG, NUMBER, (op, right) -> true);
+        setUnary(TokenType.BANG, STRING, (op, right) -> true);
+    }
+
+    private OperatorTable() { }
+
+    /**
+     * Type checks and executes a binary operation on boxed Lox values.
+     *
+     * @param operator The operator.
+     * @param left The left operand.
+     * @param right The right operand.
+     *
+     * @return The result of the operation.
+     *
+     * @throws LoxBinaryOperandsTypeRuntimeException If the types of the
+     *                                               operands are incorrect
+     *                                               with respect to the
+     *                                               operator.
+     */
+    static Object binary(Token operator, Object left, Object right) {
+        return BINARY[binaryIndex(operator.getType(), typeOf(left), typeOf(right))]
+            .apply(operator, left, right);
+    }
+
+    /**
+     * Type checks and executes a unary operation on a boxed Lox value.
+     *
+     * @param operator The operator.
+     * @param right The operand.
+     *
+     * @return The result of the operation.
+     *
+     * @throws LoxUnaryOperandTypeRuntimeException If the type of the operand
+     *                                             is incorrect with respect
+     *                                             to the operator.
+     */
+    static Object unary(Token operator, Object right) {
+        return UNARY[unaryIndex(operator.getType(), typeOf(right))]
+            .apply(operator, right);
+    }
+
+    /**
+     * Gets the type tag of a boxed Lox value.
+     *
+     * @param value The boxed Lox value.
+     *
+     * @return The type tag of the value.
+     */
+    static int typeOf(Object value) {
+        if (value == null) {
+            return NIL;
+        }
+        if (value instanceof Double) {
+            return NUMBER;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        return STRING;
+    }
+
+    /**
+     * Checks if two Lox values of the same type are equal.
+     * <p>
+     * Numbers are compared like {@link Double#equals(Object)}, meaning
+     * {@code NaN} is equal to itself and {@code 0} is not equal to
+     * {@code -0}. Strings are compared by their characters, since they may be
+     * ropes or source slices.
+     *
+     * @param type The type tag of both values.
+     * @param left The first value.
+     * @param right The second value.
+     *
+     * @return {@code true} if the two values are equal, {@code false}
+     *         otherwise.
+     */
+    private static boolean equalSameType(int type, Object left, Object right) {
+        switch (type) {
+            case NIL:
+                return true;
+            case NUMBER:
+                return Double.doubleToLongBits((Double) left)
+                    == Double.doubleToLongBits((Double) right);
+            case STRING:
+                CharSequence first = (CharSequence) left;
+                CharSequence second = (CharSequence) right;
+                return first.length() == second.length()
+                    && CharSequence.compare(first, second) == 0;
+            default:
+                return left.equals(right);
+        }
+    }
+
+    private static int binaryIndex(TokenType operator, int leftType, int rightType) {
+        return (operator.ordinal() * TYPE_COUNT + leftType) * TYPE_COUNT + rightType;
+    }
+
+    private static int unaryIndex(TokenType operator, int rightType) {
+        return operator.ordinal() * TYPE_COUNT + rightType;
+    }
+
+    private static void setBinary(TokenType operator, int leftType, int rightType, BinaryHandler handler) {
+        BINARY[binaryIndex(operator, leftType, rightType)] = handler;
+    }
+
+    private static void fillBinary(TokenType operator, BinaryHandler handler) {
+        for (int leftType = 0; leftType < TYPE_COUNT; leftType++) {
+            for (int rightType = 0; rightType < TYPE_COUNT; rightType++) {
+                setBinary(operator, leftType, rightType, handler);
+            }
+        }
+    }
+
+    /**
+     * Fills the handlers of an operator that operates on two numbers: the
+     * given handler for two numbers, and a handler throwing a
+     * {@link LoxBinaryOperandsTypeRuntimeException} for every other type.
+     */
+    private static void fillNumeric(TokenType operator, BinaryHandler handler) {
+        fillBinary(operator, (op, left, right) -> {
+            throw new LoxBinaryOperandsTypeRuntimeException(op);
+        });
+        setBinary(operator, NUMBER, NUMBER, handler);
+    }
+
+    private static void setUnary(TokenType operator, int rightType, UnaryHandler handler) {
+        UNARY[unaryIndex(operator, rightType)] = handler;
+    }
+
+    private static void fillUnary(TokenType operator, UnaryHandler handler) {
+        for (int rightType = 0; rightType < TYPE_COUNT; rightType++) {
+            setUnary(operator, rightType, handler);
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.output.OutputSink;
+import com.danieldigiovanni.token.TokenType;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An evaluator of Lox expressions that evaluates large independent subtrees
+ * in parallel.
+ * <p>
+ * The weight (number of nodes) of every subtree is computed before
+ * evaluation, once per tree. When both operands of a binary operation weigh at least the
+ * threshold, the right operand is forked to a {@link ForkJoinPool} while the
+ * left operand is evaluated by the current task. Subtrees below the threshold
+ * are evaluated sequentially by an {@link Interpreter}, and the operations
+ * above them are applied as their operands complete.
+ * <p>
+ * The result is the same as the one of a sequential evaluation, and so is
+ * the reported runtime error: an error in a left operand wins over an error
+ * in the right operand, which wins over an error of the operation itself.
+ * The operands of logical operators are not split, since the right operand
+ * must only be evaluated if the left one does not decide the result.
+ * <p>
+ * The limits of an evaluation cover all of its subtrees: their interpreters
+ * take their steps from a {@link SharedStepBudget}, and stop when the
+ * evaluation is cancelled. A forked right operand is also cancelled when the
+ * left operand fails, since its result is not needed anymore.
+ */
+public class ParallelInterpreter {
+
+    /**
+     * The default minimum weight of both operands of a binary operation for
+     * them to be evaluated in parallel.
+     */
+    public static final int DEFAULT_THRESHOLD = 4_096;
+
+    /**
+     * The pool the subtrees are evaluated in.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The minimum weight of both operands of a binary operation for them to
+     * be evaluated in parallel.
+     */
+    private final int threshold;
+
+    /**
+     * The last weighed expression and its weights, so that evaluating the
+     * same tree again does not weigh it again.
+     */
+    private volatile WeighedExpr lastWeighed;
+
+    public ParallelInterpreter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ParallelInterpreter(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Evaluates a Lox expression.
+     * <p>
+     * The result of the expression is printed as a string.
+     *
+     * @param expr The Lox expression to be evaluated.
+     */
+    public void interpret(Expr expr) {
+        System.out.println(Interpreter.stringify(this.evaluate(expr)));
+    }
+
+    /**
+     * Evaluates a Lox expression.
+     * <p>
+     * The result of the expression is written as a string to an output sink.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param sink The sink the result is written to.
+     */
+    public void interpret(Expr expr, OutputSink sink) {
+        this.interpret(expr, Map.of(), sink, EvaluationLimits.NONE);
+    }
+
+    /**
+     * Evaluates a Lox expression with values bound to its variables, within
+     * limits.
+     * <p>
+     * The result of the expression is written as a string to an output sink.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param bindings The values bound to the variables, by name.
+     * @param sink The sink the result is written to.
+     * @param limits The limits on the evaluation.
+     */
+    public void interpret(
+        Expr expr,
+        Map<String, Object> bindings,
+        OutputSink sink,
+        EvaluationLimits limits
+    ) {
+        sink.result(Interpreter.stringify(this.evaluate(expr, bindings, limits)));
+    }
+
+    /**
+     * Evaluates a Lox expression, in parallel if it is large enough.
+     *
+     * @param expr The Lox expression to be evaluated.
+     *
+     * @return The result of the expression.
+     */
+    public Object evaluate(Expr expr) {
+        return this.evaluate(expr, Map.of(), EvaluationLimits.NONE);
+    }
+
+    /**
+     * Evaluates a Lox expression with values bound to its variables, within
+     * limits, in parallel if it is large enough.
+     *
+     * @param expr The Lox expression to be evaluated.
+     * @param bindings The values bound to the variables, by name.
+     * @param limits The limits on the evaluation.
+     *
+     * @return The result of the expression.
+     */
+    public Object evaluate(
+        Expr expr,
+        Map<String, Object> bindings,
+        EvaluationLimits limits
+    ) {
+        Map<Expr, Integer> weights = this.weigh(expr);
+        SharedStepBudget steps = new SharedStepBudget(limits);
+
+        // Expressions that are too small to be split are not worth a task
+        if (!weights.containsKey(expr)) {
+            return expr.accept(new Interpreter(bindings, steps));
+        }
+
+        EvaluationTask task = new EvaluationTask(expr, weights, bindings, steps);
+        this.pool.invoke(task);
+        Object result = task.getResult();
+        steps.checkNotExceeded();
+        return result;
+    }
+
+    /**
+     * Weighs the subtrees of an expression, reusing the weights of the last
+     * weighed expression if it is the same tree.
+     *
+     * @param expr The expression to be weighed.
+     *
+     * @return The weights of the subtrees that weigh at least the threshold.
+     */
+    private Map<Expr, Integer> weigh(Expr expr) {
+        WeighedExpr weighed = this.lastWeighed;
+        if (weighed == null || weighed.expr != expr) {
+            weighed = new WeighedExpr(
+                expr,
+                new SubtreeWeigher(this.threshold).weigh(expr)
+            );
+            this.lastWeighed = weighed;
+        }
+        return weighed.weights;
+    }
+
+    /**
+     * An expression and the weights of its subtrees.
+     */
+    @AllArgsConstructor
+    private static class WeighedExpr {
+
+        private final Expr expr;
+
+        private final Map<Expr, Integer> weights;
+
+    }
+
+    /**
+     * The evaluation of a subtree.
+     * <p>
+     * Runtime errors are caught and held by the task instead of being thrown
+     * by {@link #join()}, so that the original exception is rethrown to the
+     * caller without being wrapped or copied by the pool.
+     */
+    private static class EvaluationTask extends RecursiveAction {
+
+        private final Expr expr;
+
+        /**
+         * The weights of the subtrees that weigh at least the threshold.
+         */
+        private final Map<Expr, Integer> weights;
+
+        /**
+         * The values bound to the variables, by name.
+         */
+        private final Map<String, Object> bindings;
+
+        /**
+         * The budget of the evaluation, shared by all of its tasks, with the
+         * cancellation token of this task.
+         */
+        private final SharedStepBudget steps;
+
+        private Object result;
+
+        private LoxRuntimeException error;
+
+        /**
+         * The interpreter of the subtrees of this task that are evaluated
+         * sequentially, created on first use.
+         */
+        private Interpreter interpreter;
+
+        EvaluationTask(
+            Expr expr,
+            Map<Expr, Integer> weights,
+            Map<String, Object> bindings,
+            SharedStepBudget steps
+        ) {
+            this.expr = expr;
+            this.weights = weights;
+            this.bindings = bindings;
+            this.steps = steps;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                this.result = this.evaluate(this.expr);
+            } catch (LoxRuntimeException exception) {
+                this.error = exception;
+            } finally {
+                if (this.interpreter != null) {
+                    this.interpreter.releaseSteps();
+                }
+            }
+        }
+
+        /**
+         * @return The result of the completed task.
+         *
+         * @throws LoxRuntimeException If the evaluation failed.
+         */
+        Object getResult() {
+            if (this.error != null) {
+                throw this.error;
+            }
+            return this.result;
+        }
+
+        private Object evaluate(Expr expr) {
+            if (expr instanceof Binary binary && this.heavy(binary)) {
+                this.interpreter().step(binary.getOperator());
+                if (!this.heavy(binary.getLeft())
+                    || !this.heavy(binary.getRight())) {
+                    Object left = this.evaluate(binary.getLeft());
+                    Object right = this.evaluate(binary.getRight());
+                    return OperatorTable.binary(
+                        binary.getOperator(),
+                        left,
+                        right
+                    );
+                }
+
+                // Cancelled if the left operand fails, or this task is cancelled
+                CancellationToken rightCancellation =
+                    new CancellationToken(this.steps.getCancellation());
+                EvaluationTask right = new EvaluationTask(
+                    binary.getRight(),
+                    this.weights,
+                    this.bindings,
+                    this.steps.withCancellation(rightCancellation)
+                );
+                right.fork();
+
+                Object left;
+                try {
+                    left = this.evaluate(binary.getLeft());
+                } catch (LoxRuntimeException exception) {
+                    // The result of the right operand is not needed anymore
+                    rightCancellation.cancel();
+                    right.cancel(false);
+                    throw exception;
+                }
+
+                // The right task may need the steps this one is not using
+                this.interpreter().releaseSteps();
+                right.join();
+                return OperatorTable.binary(
+                    binary.getOperator(),
+                    left,
+                    right.getResult()
+                );
+            }
+
+            if (expr instanceof Logical logical && this.heavy(logical)) {
+                this.interpreter().step(logical.getOperator());
+                Object left = this.evaluate(logical.getLeft());
+                boolean or = logical.getOperator().getType() == TokenType.OR;
+                if (Interpreter.truthy(left) == or) {
+                    return left;
+                }
+                return this.evaluate(logical.getRight());
+            }
+
+            if (expr instanceof Unary unary && this.heavy(unary)) {
+                this.interpreter().step(unary.getOperator());
+                return OperatorTable.unary(
+                    unary.getOperator(),
+                    this.evaluate(unary.getRight())
+                );
+            }
+
+            if (expr instanceof Grouping grouping && this.heavy(grouping)) {
+                return this.evaluate(grouping.getExpr());
+            }
+
+            return expr.accept(this.interpreter());
+        }
+
+        /**
+         * @return The interpreter of this task, which evaluates its light
+         *         subtrees and counts the steps of its heavy operations.
+         */
+        private Interpreter interpreter() {
+            if (this.interpreter == null) {
+                this.interpreter = new Interpreter(this.bindings, this.steps);
+            }
+            return this.interpreter;
+        }
+
+        /**
+         * @return {@code true} if the subtree weighs at least the threshold,
+         *         {@code false} otherwise.
+         */
+        private boolean heavy(Expr expr) {
+            return this.weights.containsKey(expr);
+        }
+
+    }
+
+}
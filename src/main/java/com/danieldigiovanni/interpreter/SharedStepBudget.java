@@ -0,0 +1,181 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.interpreter.exception.LoxBudgetExceededRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException;
+import com.danieldigiovanni.token.Token;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The steps left to an evaluation (see {@link EvaluationLimits}), shared by
+ * the evaluators taking part in it, possibly on different threads.
+ * <p>
+ * An evaluator takes steps from the budget in grants of up to
+ * {@link #GRANT_SIZE} steps, and checks the budget and the cancellation token
+ * when it has taken all the steps of its grant. An evaluator that finishes
+ * before taking all of them gives the rest back.
+ * <p>
+ * The budget is only exceeded when the steps taken by all the evaluators
+ * exceed it. When no steps are left to grant but other evaluators still hold
+ * steps they may give back, steps are lent one at a time, as long as the
+ * steps held cover them. If they are not given back by the end of the
+ * evaluation, {@link #checkNotExceeded()} reports the budget as exceeded.
+ */
+@Getter
+final class SharedStepBudget {
+
+    /**
+     * The maximum number of steps granted at a time.
+     */
+    static final int GRANT_SIZE = 1024;
+
+    /**
+     * The maximum number of steps, or {@link Long#MAX_VALUE} for no budget.
+     */
+    private final long stepBudget;
+
+    /**
+     * The token to cancel the evaluation, or {@code null} if it cannot be
+     * cancelled.
+     */
+    private final CancellationToken cancellation;
+
+    /**
+     * The count of the steps of the evaluation, shared with the views of this
+     * budget (see {@link #withCancellation(CancellationToken)}).
+     */
+    @Getter(AccessLevel.NONE)
+    private final StepCount count;
+
+    SharedStepBudget(EvaluationLimits limits) {
+        this.stepBudget = limits.getStepBudget();
+        this.cancellation = limits.getCancellation();
+        this.count = new StepCount(this.stepBudget);
+    }
+
+    private SharedStepBudget(SharedStepBudget budget, CancellationToken cancellation) {
+        this.stepBudget = budget.stepBudget;
+        this.cancellation = cancellation;
+        this.count = budget.count;
+    }
+
+    /**
+     * Creates a view of this budget for a part of the evaluation that can be
+     * cancelled on its own. The steps are taken from this budget.
+     *
+     * @param cancellation The token to cancel the part of the evaluation.
+     *
+     * @return The view of this budget.
+     */
+    SharedStepBudget withCancellation(CancellationToken cancellation) {
+        return new SharedStepBudget(this, cancellation);
+    }
+
+    /**
+     * Takes a step, and grants the steps to be taken before the next call.
+     *
+     * @param token The token of the operation being evaluated.
+     * @param taken The number of steps of the last grant to the caller, which
+     *              were all taken, or {@code 0} on the first call.
+     *
+     * @return The number of steps granted, besides the step taken.
+     *
+     * @throws LoxBudgetExceededRuntimeException If the budget is exhausted.
+     * @throws LoxCancelledRuntimeException If the evaluation was cancelled.
+     */
+    int grant(Token token, int taken) {
+        if (this.cancellation != null && this.cancellation.isCancelled()) {
+            throw new LoxCancelledRuntimeException(token);
+        }
+        if (this.stepBudget == Long.MAX_VALUE) {
+            return GRANT_SIZE;
+        }
+
+        StepCount count = this.count;
+        synchronized (count) {
+            count.held -= taken;
+            if (count.left > 0) {
+                long granted = Math.min(GRANT_SIZE + 1L, count.left);
+                count.left -= granted;
+                count.held += granted - 1;
+                return (int) (granted - 1);
+            }
+            // Steps are only lent if the steps held by others can pay them back
+            if (count.left + count.held <= 0) {
+                throw new LoxBudgetExceededRuntimeException(token, this.stepBudget);
+            }
+            count.left--;
+            if (count.firstLentStep == null) {
+                count.firstLentStep = token;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Gives back steps that were granted and not taken.
+     *
+     * @param granted The number of steps of the last grant to the caller.
+     * @param notTaken The number of those steps that were not taken.
+     */
+    void release(int granted, int notTaken) {
+        if (this.stepBudget == Long.MAX_VALUE) {
+            return;
+        }
+        StepCount count = this.count;
+        synchronized (count) {
+            count.held -= granted;
+            count.left += notTaken;
+        }
+    }
+
+    /**
+     * Checks that the steps lent were given back, once every evaluator gave
+     * back the steps it did not take.
+     *
+     * @throws LoxBudgetExceededRuntimeException If the steps taken exceed the
+     *                                           budget.
+     */
+    void checkNotExceeded() {
+        StepCount count = this.count;
+        synchronized (count) {
+            if (count.left < 0) {
+                throw new LoxBudgetExceededRuntimeException(
+                    count.firstLentStep,
+                    this.stepBudget
+                );
+            }
+        }
+    }
+
+    /**
+     * The count of the steps of an evaluation, guarded by its own lock.
+     * <p>
+     * The budget is always the sum of the steps left, the steps held, and
+     * the steps taken.
+     */
+    private static final class StepCount {
+
+        /**
+         * The number of steps that were not granted yet, which is negative
+         * when steps were lent.
+         */
+        private long left;
+
+        /**
+         * The number of steps granted and not known to be taken yet.
+         */
+        private long held = 0;
+
+        /**
+         * The token of the first step lent, or {@code null}.
+         */
+        private Token firstLentStep = null;
+
+        private StepCount(long budget) {
+            this.left = budget;
+        }
+
+    }
+
+}
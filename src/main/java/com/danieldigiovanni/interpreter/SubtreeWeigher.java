@@ -0,0 +1,80 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Computes the weight of every subtree of an abstract syntax tree, which is
+ * its number of nodes.
+ * <p>
+ * Only the subtrees that weigh at least a threshold are recorded, since the
+ * weights are only used to find the subtrees that are worth evaluating in
+ * parallel. Any subtree that is not recorded is lighter than the threshold.
+ */
+class SubtreeWeigher {
+
+    /**
+     * The minimum weight of a recorded subtree.
+     */
+    private final int threshold;
+
+    /**
+     * The weights of the recorded subtrees, by node identity.
+     */
+    private final Map<Expr, Integer> weights = new IdentityHashMap<>();
+
+    SubtreeWeigher(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Weighs every subtree of an expression.
+     *
+     * @param expr The expression to be weighed.
+     *
+     * @return The weights of the subtrees that weigh at least the threshold.
+     */
+    Map<Expr, Integer> weigh(Expr expr) {
+        this.weight(expr);
+        return this.weights;
+    }
+
+    /**
+     * Weighs a subtree and records its weight if it is heavy enough.
+     * <p>
+     * This does not go through a {@code Visitor<Integer>}, so that weighing
+     * large trees does not box the weight of every node.
+     *
+     * @param expr The subtree to be weighed.
+     *
+     * @return The weight of the subtree.
+     */
+    private int weight(Expr expr) {
+        int weight;
+        if (expr instanceof Binary binary) {
+            weight = 1 + this.weight(binary.getLeft())
+                + this.weight(binary.getRight());
+        } else if (expr instanceof Logical logical) {
+            weight = 1 + this.weight(logical.getLeft())
+                + this.weight(logical.getRight());
+        } else if (expr instanceof Unary unary) {
+            weight = 1 + this.weight(unary.getRight());
+        } else if (expr instanceof Grouping grouping) {
+            weight = 1 + this.weight(grouping.getExpr());
+        } else {
+            return 1;
+        }
+
+        if (weight >= this.threshold) {
+            this.weights.put(expr, weight);
+        }
+        return weight;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.danieldigiovanni.interpreter.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A column of Lox booleans.
+ */
+@AllArgsConstructor
+@Getter
+public class BooleanColumn extends Column {
+
+    private final boolean[] values;
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return this.values[row];
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.danieldigiovanni.interpreter.batch;
+
+/**
+ * A column of Lox values, one per row of a batch.
+ * <p>
+ * Columns whose values all have the same primitive type keep them in a
+ * primitive array, so that operations on whole columns do not box them.
+ */
+public abstract class Column {
+
+    /**
+     * @return The number of rows of the column.
+     */
+    public abstract int size();
+
+    /**
+     * Gets the value of a row as a boxed Lox value.
+     *
+     * @param row The index of the row.
+     *
+     * @return The value of the row.
+     */
+    public abstract Object get(int row);
+
+}
@@ -0,0 +1,89 @@
+package com.danieldigiovanni.interpreter.batch;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A batch of rows, with a column of values bound to each variable name.
+ */
+public class ColumnBatch {
+
+    /**
+     * The number of rows of the batch.
+     */
+    @Getter
+    private final int size;
+
+    /**
+     * The columns of the batch, by variable name.
+     */
+    private final Map<String, Column> columns = new HashMap<>();
+
+    public ColumnBatch(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Binds a column of numbers to a variable.
+     *
+     * @param name The name of the variable.
+     * @param values The value of the variable in each row.
+     *
+     * @return This batch.
+     */
+    public ColumnBatch bind(String name, double[] values) {
+        return this.bind(name, new NumberColumn(values));
+    }
+
+    /**
+     * Binds a column of strings to a variable. A {@code null} string is bound
+     * as {@code nil}.
+     *
+     * @param name The name of the variable.
+     * @param values The value of the variable in each row.
+     *
+     * @return This batch.
+     */
+    public ColumnBatch bind(String name, String[] values) {
+        return this.bind(name, new ObjectColumn(values));
+    }
+
+    /**
+     * Binds a column to a variable.
+     *
+     * @param name The name of the variable.
+     * @param column The value of the variable in each row.
+     *
+     * @return This batch.
+     *
+     * @throws IllegalArgumentException If the column does not have as many
+     *                                  rows as the batch.
+     */
+    public ColumnBatch bind(String name, Column column) {
+        if (column.size() != this.size) {
+            throw new IllegalArgumentException(String.format(
+                "Column '%s' has %d rows, expected %d",
+                name,
+                column.size(),
+                this.size
+            ));
+        }
+        this.columns.put(name, column);
+        return this;
+    }
+
+    /**
+     * Gets the column bound to a variable.
+     *
+     * @param name The name of the variable.
+     *
+     * @return The column bound to the variable, or {@code null} if there is
+     *         none.
+     */
+    public Column getColumn(String name) {
+        return this.columns.get(name);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.danieldigiovanni.interpreter.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A column with the same Lox value in every row, without storing it once per
+ * row.
+ */
+@AllArgsConstructor
+@Getter
+public class ConstantColumn extends Column {
+
+    private final Object value;
+
+    private final int size;
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Object get(int row) {
+        return this.value;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.danieldigiovanni.interpreter.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A column of boxed Lox values, which may be of different types.
+ */
+@AllArgsConstructor
+@Getter
+public class ObjectColumn extends Column {
+
+    private final Object[] values;
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return this.values[row];
+    }
+
+}
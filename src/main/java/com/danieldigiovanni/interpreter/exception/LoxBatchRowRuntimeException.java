@@ -0,0 +1,32 @@
+package com.danieldigiovanni.interpreter.exception;
+
+import lombok.Getter;
+
+/**
+ * Runtime exception representing that case where an expression evaluated
+ * over a batch of rows failed for at least one row.
+ * <p>
+ * It reports the error of the first row that failed, which is the error that
+ * evaluating the expression on that row alone would have thrown.
+ */
+@Getter
+public class LoxBatchRowRuntimeException extends LoxRuntimeException {
+
+    /**
+     * The index of the first row that failed.
+     */
+    private final int row;
+
+    /**
+     * Constructs a {@link LoxBatchRowRuntimeException} with the error of the
+     * first row that failed.
+     *
+     * @param row The index of the first row that failed.
+     * @param cause The error of that row.
+     */
+    public LoxBatchRowRuntimeException(int row, LoxRuntimeException cause) {
+        super(cause.getToken(), cause::getMessage, cause);
+        this.row = row;
+    }
+
+}
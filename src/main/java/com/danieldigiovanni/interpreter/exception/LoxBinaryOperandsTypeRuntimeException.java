@@ -2,6 +2,8 @@ package com.danieldigiovanni.interpreter.exception;
 
 import com.danieldigiovanni.token.Token;
 
+import java.util.function.Supplier;
+
 /**
  * Runtime exception representing that case where a binary operation could not
  * be evaluated due to incorrect operand types for the operator.
@@ -22,7 +24,7 @@ public class LoxBinaryOperandsTypeRuntimeException extends LoxRuntimeException {
     public LoxBinaryOperandsTypeRuntimeException(Token token) {
         this(
             token,
-            String.format(
+            () -> String.format(
                 "Binary %s operator: operands must be both numbers",
                 token.getType()
             )
@@ -39,9 +41,9 @@ public class LoxBinaryOperandsTypeRuntimeException extends LoxRuntimeException {
      * ensuring consistency in error messages.
      *
      * @param token The operator token that caused the exception.
-     * @param message The error message.
+     * @param message The formatter of the error message.
      */
-    protected LoxBinaryOperandsTypeRuntimeException(Token token, String message) {
+    protected LoxBinaryOperandsTypeRuntimeException(Token token, Supplier<String> message) {
         super(token, message);
     }
 
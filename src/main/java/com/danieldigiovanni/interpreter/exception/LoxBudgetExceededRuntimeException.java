@@ -0,0 +1,28 @@
+package com.danieldigiovanni.interpreter.exception;
+
+import com.danieldigiovanni.token.Token;
+
+/**
+ * Runtime exception representing that case where an evaluation was stopped
+ * because it took more steps than its budget allowed.
+ */
+public class LoxBudgetExceededRuntimeException extends LoxRuntimeException {
+
+    /**
+     * Constructs a {@link LoxBudgetExceededRuntimeException} with the token
+     * of the operation that exceeded the budget.
+     *
+     * @param token The token of the operation that exceeded the budget.
+     * @param budget The budget of steps.
+     */
+    public LoxBudgetExceededRuntimeException(Token token, long budget) {
+        super(
+            token,
+            () -> String.format(
+                "Evaluation exceeded its budget of %d steps",
+                budget
+            )
+        );
+    }
+
+}
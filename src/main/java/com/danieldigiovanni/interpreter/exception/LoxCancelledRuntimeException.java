@@ -0,0 +1,21 @@
+package com.danieldigiovanni.interpreter.exception;
+
+import com.danieldigiovanni.token.Token;
+
+/**
+ * Runtime exception representing that case where an evaluation was stopped
+ * because it was cancelled.
+ */
+public class LoxCancelledRuntimeException extends LoxRuntimeException {
+
+    /**
+     * Constructs a {@link LoxCancelledRuntimeException} with the token of the
+     * operation that was being evaluated when the cancellation was noticed.
+     *
+     * @param token The token of the operation being evaluated.
+     */
+    public LoxCancelledRuntimeException(Token token) {
+        super(token, "Evaluation was cancelled");
+    }
+
+}
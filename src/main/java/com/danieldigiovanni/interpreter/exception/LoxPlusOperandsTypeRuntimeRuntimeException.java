@@ -23,7 +23,7 @@ public class LoxPlusOperandsTypeRuntimeRuntimeException extends LoxBinaryOperand
     public LoxPlusOperandsTypeRuntimeRuntimeException(Token token) {
         super(
             token,
-            String.format(
+            () -> String.format(
                 "Binary %s operator: operands must be both numbers or both "
                     + "strings",
                 TokenType.PLUS
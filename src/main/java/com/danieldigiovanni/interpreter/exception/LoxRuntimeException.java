@@ -1,13 +1,16 @@
 package com.danieldigiovanni.interpreter.exception;
 
+import com.danieldigiovanni.exception.LoxException;
 import com.danieldigiovanni.token.Token;
 import lombok.Getter;
 
+import java.util.function.Supplier;
+
 /**
  * Exception representing a runtime exception when executing Lox code.
  */
 @Getter
-public class LoxRuntimeException extends RuntimeException {
+public class LoxRuntimeException extends LoxException {
 
     /**
      * The token that caused the exception.
@@ -26,4 +29,30 @@ public class LoxRuntimeException extends RuntimeException {
         this.token = token;
     }
 
+    /**
+     * Construct a {@link LoxRuntimeException} with the token that caused the
+     * exception and the formatter of its error message, which is only called
+     * if the message is used.
+     *
+     * @param token The token that caused the exception.
+     * @param message The formatter of the error message.
+     */
+    public LoxRuntimeException(Token token, Supplier<String> message) {
+        this(token, message, null);
+    }
+
+    /**
+     * Construct a {@link LoxRuntimeException} with the token that caused the
+     * exception, the formatter of its error message, which is only called if
+     * the message is used, and the exception it was caused by.
+     *
+     * @param token The token that caused the exception.
+     * @param message The formatter of the error message.
+     * @param cause The exception this exception was caused by.
+     */
+    protected LoxRuntimeException(Token token, Supplier<String> message, Throwable cause) {
+        super(message, cause);
+        this.token = token;
+    }
+
 }
@@ -17,7 +17,7 @@ public class LoxUnaryOperandTypeRuntimeException extends LoxRuntimeException {
     public LoxUnaryOperandTypeRuntimeException(Token token) {
         super(
             token,
-            String.format(
+            () -> String.format(
                 "Unary %s operator: operand must be a number",
                 token.getType()
             )
@@ -0,0 +1,24 @@
+package com.danieldigiovanni.interpreter.exception;
+
+import com.danieldigiovanni.token.Token;
+
+/**
+ * Runtime exception representing that case where a variable could not be
+ * evaluated because no value is bound to its name.
+ */
+public class LoxUndefinedVariableRuntimeException extends LoxRuntimeException {
+
+    /**
+     * Constructs a {@link LoxUndefinedVariableRuntimeException} with the
+     * token of the variable that caused the exception.
+     *
+     * @param token The variable token that caused the exception.
+     */
+    public LoxUndefinedVariableRuntimeException(Token token) {
+        super(
+            token,
+            () -> String.format("Undefined variable '%s'", token.getLexeme())
+        );
+    }
+
+}
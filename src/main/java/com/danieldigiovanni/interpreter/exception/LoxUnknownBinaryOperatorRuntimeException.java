@@ -17,7 +17,7 @@ public class LoxUnknownBinaryOperatorRuntimeException extends LoxRuntimeExceptio
     public LoxUnknownBinaryOperatorRuntimeException(Token token) {
         super(
             token,
-            String.format(
+            () -> String.format(
                 "Unknown operator for binary expression, operator: %s",
                 token.toString()
             )
@@ -17,7 +17,7 @@ public class LoxUnknownUnaryOperatorRuntimeException extends LoxRuntimeException
     public LoxUnknownUnaryOperatorRuntimeException(Token token) {
         super(
             token,
-            String.format(
+            () -> String.format(
                 "Unknown operator for unary expression, operator: %s",
                 token.toString()
             )
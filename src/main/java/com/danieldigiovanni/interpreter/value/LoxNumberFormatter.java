@@ -0,0 +1,107 @@
+package com.danieldigiovanni.interpreter.value;
+
+/**
+ * Formats Lox numbers as text.
+ * <p>
+ * The text of a number is the one of {@link Double#toString(double)}, without
+ * the {@code ".0"} suffix of integral values (so {@code 3.0} is written
+ * {@code 3}, but {@code 1.0E7} is kept as it is).
+ * <p>
+ * Integral values below {@code 10^7} in magnitude, which is where
+ * {@link Double#toString(double)} stops writing plain decimals, are written
+ * directly from their {@code long} value. Any other value is written from the
+ * digits of {@link Double#toString(double)}, which is the only way to match
+ * its output exactly: its digit generation is not the shortest round trip on
+ * every JDK this project supports, so a different algorithm would print some
+ * values differently.
+ * <p>
+ * This class only contains static methods.
+ */
+public final class LoxNumberFormatter {
+
+    /**
+     * The smallest magnitude written in scientific notation by
+     * {@link Double#toString(double)}.
+     */
+    private static final double SCIENTIFIC_THRESHOLD = 1e7;
+
+    private LoxNumberFormatter() {
+    }
+
+    /**
+     * Formats a Lox number as text.
+     *
+     * @param number The Lox number.
+     *
+     * @return The text of the number.
+     */
+    public static String format(double number) {
+        if (isSmallIntegral(number)) {
+            if (number == 0 && Double.doubleToRawLongBits(number) != 0L) {
+                return "-0";
+            }
+            return Long.toString((long) number);
+        }
+
+        String text = Double.toString(number);
+        if (text.endsWith(".0")) {
+            return text.substring(0, text.length() - 2);
+        }
+        return text;
+    }
+
+    /**
+     * Appends the text of a Lox number to a buffer, without creating any
+     * intermediate string for small integral values.
+     *
+     * @param number The Lox number.
+     * @param buffer The buffer the text is appended to.
+     */
+    public static void format(double number, StringBuilder buffer) {
+        if (isSmallIntegral(number)) {
+            if (number == 0 && Double.doubleToRawLongBits(number) != 0L) {
+                buffer.append("-0");
+            } else {
+                buffer.append((long) number);
+            }
+            return;
+        }
+
+        String text = Double.toString(number);
+        if (text.endsWith(".0")) {
+            buffer.append(text, 0, text.length() - 2);
+        } else {
+            buffer.append(text);
+        }
+    }
+
+    /**
+     * Appends the text of an integral Lox number to a buffer.
+     * <p>
+     * This is consistent with {@link #format(double, StringBuilder)}, which
+     * means that numbers of {@code 10^7} or more in magnitude are written in
+     * scientific notation.
+     *
+     * @param number The integral Lox number.
+     * @param buffer The buffer the text is appended to.
+     */
+    public static void format(long number, StringBuilder buffer) {
+        if (number <= -SCIENTIFIC_THRESHOLD || number >= SCIENTIFIC_THRESHOLD) {
+            format((double) number, buffer);
+        } else {
+            buffer.append(number);
+        }
+    }
+
+    /**
+     * @return {@code true} if the number is integral and written as a plain
+     *         decimal by {@link Double#toString(double)}, {@code false}
+     *         otherwise.
+     */
+    private static boolean isSmallIntegral(double number) {
+        return number > -SCIENTIFIC_THRESHOLD
+            && number < SCIENTIFIC_THRESHOLD
+            && number == (long) number;
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.danieldigiovanni.interpreter.value;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A Lox string built by lazily concatenating two other strings.
+ * <p>
+ * Concatenating two strings eagerly copies both of them, so a chain of
+ * {@code N} concatenations copies the growing prefix {@code N} times, which is
+ * quadratic. A rope only records its two halves, and the characters are
+ * copied once, when the rope is flattened. A rope is flattened the first time
+ * its characters are needed (when it is printed, compared, etc.), and the
+ * flattened string is cached.
+ * <p>
+ * A rope can be shared by threads, as in the literals of a folded tree: its
+ * halves never change, and the flattened string is published through a
+ * volatile field. Threads flattening a rope at the same time build equal
+ * strings, and either may be kept.
+ */
+public class LoxRope implements CharSequence {
+
+    /**
+     * Concatenations resulting in at most this many characters are performed
+     * eagerly, because copying a short string is cheaper than building and
+     * later flattening a rope.
+     */
+    private static final int EAGER_CONCATENATION_LENGTH = 32;
+
+    /**
+     * The left half of the rope.
+     */
+    private final CharSequence left;
+
+    /**
+     * The right half of the rope.
+     */
+    private final CharSequence right;
+
+    /**
+     * The number of characters in the rope.
+     */
+    private final int length;
+
+    /**
+     * The flattened rope, or {@code null} if the rope is not flattened yet.
+     */
+    private volatile String flattened = null;
+
+    private LoxRope(CharSequence left, CharSequence right) {
+        this.left = left;
+        this.right = right;
+        this.length = left.length() + right.length();
+    }
+
+    /**
+     * Concatenates two Lox strings.
+     * <p>
+     * Short results are concatenated eagerly into a {@link String}, and longer
+     * results are concatenated lazily into a {@link LoxRope}.
+     *
+     * @param left The left string.
+     * @param right The right string.
+     *
+     * @return The concatenation of both strings.
+     */
+    public static CharSequence concat(CharSequence left, CharSequence right) {
+        if (left.length() == 0) {
+            return right;
+        }
+        if (right.length() == 0) {
+            return left;
+        }
+        if ((long) left.length() + right.length() > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("Lox string length exceeds the maximum");
+        }
+        if (left.length() + right.length() <= EAGER_CONCATENATION_LENGTH) {
+            return new StringBuilder(left.length() + right.length())
+                .append(left)
+                .append(right)
+                .toString();
+        }
+        return new LoxRope(left, right);
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return this.toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.toString().subSequence(start, end);
+    }
+
+    /**
+     * Flattens the rope (if it is not flattened yet) and returns it as a
+     * string.
+     * <p>
+     * The rope is walked iteratively, so deeply nested ropes (such as the
+     * left-leaning ropes produced by a long chain of concatenations) cannot
+     * overflow the stack.
+     *
+     * @return The characters of the rope.
+     */
+    @Override
+    public String toString() {
+        String flattened = this.flattened;
+        if (flattened != null) {
+            return flattened;
+        }
+
+        StringBuilder builder = new StringBuilder(this.length);
+        Deque<CharSequence> pending = new ArrayDeque<>();
+        pending.push(this);
+
+        while (!pending.isEmpty()) {
+            CharSequence next = pending.pop();
+            if (next instanceof LoxRope rope) {
+                String ropeFlattened = rope.flattened;
+                if (ropeFlattened != null) {
+                    builder.append(ropeFlattened);
+                } else {
+                    // Right half is pushed first so that the left half comes out first
+                    pending.push(rope.right);
+                    pending.push(rope.left);
+                }
+            } else if (next instanceof LoxSourceSlice slice) {
+                slice.appendTo(builder);
+            } else {
+                builder.append(next);
+            }
+        }
+
+        flattened = builder.toString();
+        this.flattened = flattened;
+        return flattened;
+    }
+
+}
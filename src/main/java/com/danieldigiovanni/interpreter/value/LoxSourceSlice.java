@@ -0,0 +1,105 @@
+package com.danieldigiovanni.interpreter.value;
+
+/**
+ * A Lox string that is a view over a range of the source code, such as the
+ * contents of a string literal.
+ * <p>
+ * The characters are not copied out of the source, so a script with many
+ * large string literals needs no more memory for them than the source itself.
+ * The characters are only copied when the slice is converted to a
+ * {@link String} (for example, when it is printed or concatenated into a
+ * short string), which is also how a string that has to outlive the source
+ * should be detached from it.
+ */
+public class LoxSourceSlice implements CharSequence {
+
+    /**
+     * The source code that the slice is a view over.
+     */
+    private final String source;
+
+    /**
+     * The index of the first character of the slice in the source code
+     * (inclusive).
+     */
+    private final int start;
+
+    /**
+     * The index of the last character of the slice in the source code
+     * (exclusive).
+     */
+    private final int end;
+
+    /**
+     * Constructs a {@link LoxSourceSlice} over a range of the source code.
+     *
+     * @param source The source code.
+     * @param start The index of the first character of the slice
+     *              (inclusive).
+     * @param end The index of the last character of the slice (exclusive).
+     */
+    public LoxSourceSlice(String source, int start, int end) {
+        if (start < 0 || end > source.length() || start > end) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Slice [%d, %d) is out of bounds of source of length %d",
+                start,
+                end,
+                source.length()
+            ));
+        }
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= this.length()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return this.source.charAt(this.start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > this.length() || start > end) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Subsequence [%d, %d) is out of bounds of slice of length %d",
+                start,
+                end,
+                this.length()
+            ));
+        }
+        return new LoxSourceSlice(
+            this.source,
+            this.start + start,
+            this.start + end
+        );
+    }
+
+    /**
+     * Appends the characters of the slice to a string builder, without
+     * copying them into an intermediate string.
+     *
+     * @param builder The string builder.
+     */
+    public void appendTo(StringBuilder builder) {
+        builder.append(this.source, this.start, this.end);
+    }
+
+    /**
+     * Copies the characters of the slice into a new string.
+     *
+     * @return The characters of the slice.
+     */
+    @Override
+    public String toString() {
+        return this.source.substring(this.start, this.end);
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.danieldigiovanni.lexer;
 
+import com.danieldigiovanni.interpreter.value.LoxSourceSlice;
 import com.danieldigiovanni.lexer.exception.LoxSyntaxException;
 import com.danieldigiovanni.token.Token;
 import com.danieldigiovanni.token.TokenType;
@@ -10,14 +11,43 @@ import java.util.List;
 public class Lexer {
 
     private final String source;
-    private final List<Token> tokens = new ArrayList<>();
+    private final List<Token> tokens;
 
     private int start = 0;
     private int current = 0;
-    private int line = 1;
+    private int line;
 
     public Lexer(String source) {
+        this(source, new ArrayList<>());
+    }
+
+    /**
+     * Initialize a lexer that adds the tokens to a given list, so that a
+     * list can be reused to lex many sources.
+     *
+     * @param source The source code to be lexed.
+     * @param tokens The list the tokens are added to, which is cleared
+     *               first.
+     */
+    public Lexer(String source, List<Token> tokens) {
+        this(source, tokens, 1);
+    }
+
+    /**
+     * Initialize a lexer of source code that starts on a given line, e.g. a
+     * line of a larger input, so that the tokens hold the lines of the
+     * input.
+     *
+     * @param source The source code to be lexed.
+     * @param tokens The list the tokens are added to, which is cleared
+     *               first.
+     * @param firstLine The line number of the first line of the source.
+     */
+    public Lexer(String source, List<Token> tokens, int firstLine) {
         this.source = source;
+        this.tokens = tokens;
+        this.tokens.clear();
+        this.line = firstLine;
     }
 
     /**
@@ -116,7 +146,7 @@ public class Lexer {
                     this.lexIdentifier();
                 } else {
                     // Not a valid token
-                    throw new LoxSyntaxException();
+                    throw this.unexpectedCharacter();
                 }
         }
     }
@@ -235,7 +265,7 @@ public class Lexer {
                 this.lexSlash();
                 return;
             default:
-                throw new LoxSyntaxException();
+                throw this.unexpectedCharacter();
         }
 
         // Extract lexeme
@@ -263,26 +293,31 @@ public class Lexer {
             // Consume the first slash
             this.current++;
 
-            // Consume characters until the newline
-            while (nextChar != '\n') {
+            // Consume characters until the newline or the end of the source
+            while (this.current < this.source.length()
+                && this.source.charAt(this.current) != '\n') {
+                this.current++;
+            }
+            if (this.current < this.source.length()) {
+                // Increment line number because we found a newline
+                this.line++;
+                // Consume the final newline
                 this.current++;
-                nextChar = this.peek();
             }
-            // Increment line number because we found a newline
-            this.line++;
-            // Consume the final character of the comment
-            this.current++;
-            // Consume the final newline
-            this.current++;
         } else if (nextChar == '*') {
             /*
              * If the next character is a star, it is a multiline comment.
              */
 
             char nextNextChar = this.peek(2);
+            int startLine = this.line;
 
             // Consume characters until we see the closing "*/"
             while (!(nextChar == '*' && nextNextChar == '/')) {
+                if (this.current + 2 >= this.source.length()) {
+                    // File ended before the closing "*/", so throw error
+                    throw new LoxSyntaxException(startLine, "Unterminated comment.");
+                }
                 this.current++;
 
                 // Increment the line number if we find a newline
@@ -315,6 +350,7 @@ public class Lexer {
      * be thrown.
      */
     private void lexStringLiteral() {
+        int startLine = this.line;
         // Consume the entire string
         while (this.peek() != '"') {
             // String can be multiline
@@ -323,7 +359,7 @@ public class Lexer {
             }
             if (this.current >= this.source.length()) {
                 // File ended before closing quotation mark, so throw error
-                throw new LoxSyntaxException();
+                throw new LoxSyntaxException(startLine, "Unterminated string.");
             }
             this.current++;
         }
@@ -332,8 +368,16 @@ public class Lexer {
         this.current++;
         // Consume closing '"'
         this.current++;
-        // Extract lexeme without the opening and closing quotation marks
-        String value = this.source.substring(this.start + 1, this.current - 1);
+        /*
+         * Extract lexeme without the opening and closing quotation marks. The
+         * lexeme is a view over the source rather than a copy, since string
+         * literals can be large.
+         */
+        CharSequence value = new LoxSourceSlice(
+            this.source,
+            this.start + 1,
+            this.current - 1
+        );
         // Add token to list
         this.tokens.add(new Token(TokenType.STRING, value, value, this.line));
     }
@@ -499,4 +543,15 @@ public class Lexer {
         return c >= '0' && c <= '9';
     }
 
+    /**
+     * @return The exception of a character that does not start any token,
+     *         the current one.
+     */
+    private LoxSyntaxException unexpectedCharacter() {
+        return new LoxSyntaxException(
+            this.line,
+            "Unexpected character '" + this.source.charAt(this.current) + "'."
+        );
+    }
+
 }
@@ -1,6 +1,29 @@
 package com.danieldigiovanni.lexer.exception;
 
+import com.danieldigiovanni.exception.LoxException;
+import lombok.Getter;
+
 /**
  * Exception representing a syntax error in the Lox source code.
  */
-public class LoxSyntaxException extends RuntimeException { }
+@Getter
+public class LoxSyntaxException extends LoxException {
+
+    /**
+     * The line number that the error occurred on.
+     */
+    private final int lineNumber;
+
+    /**
+     * Construct a {@link LoxSyntaxException} with the line number that the
+     * error occurred on and an error message.
+     *
+     * @param lineNumber The line number that the error occurred on.
+     * @param message The error message.
+     */
+    public LoxSyntaxException(int lineNumber, String message) {
+        super(message);
+        this.lineNumber = lineNumber;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Literal;
+
+/**
+ * Optimization pass that removes operations with an identity operand.
+ * <p>
+ * Only identities that hold for every value under Lox semantics (IEEE 754
+ * doubles, where {@code -0}, infinities and {@code NaN} must be preserved) are
+ * applied, and only when the other operand produces a value of the right
+ * type, so that type errors are kept:
+ * <ul>
+ *     <li>{@code x - 0}, {@code x * 1}, {@code 1 * x} and {@code x / 1}
+ *     become {@code x} when {@code x} produces a number,</li>
+ *     <li>{@code x + -0} and {@code -0 + x} become {@code x} when {@code x}
+ *     produces a number ({@code x + 0} is not simplified, since
+ *     {@code -0 + 0} is {@code 0}),</li>
+ *     <li>{@code x == true} and {@code x != false} (in either order) become
+ *     {@code x} when {@code x} produces a boolean.</li>
+ * </ul>
+ */
+public class AlgebraicSimplificationPass extends RewritingPass {
+
+    @Override
+    public String getName() {
+        return "algebraic simplification";
+    }
+
+    @Override
+    public Expr visit(Binary expr) {
+        Expr rewritten = super.visit(expr);
+        if (!(rewritten instanceof Binary binary)) {
+            return rewritten;
+        }
+
+        Expr left = binary.getLeft();
+        Expr right = binary.getRight();
+
+        switch (binary.getOperator().getType()) {
+            case MINUS:
+                if (isNumber(right, 0.0) && Expressions.producesNumber(left)) {
+                    return left;
+                }
+                break;
+            case PLUS:
+                if (isNumber(right, -0.0) && Expressions.producesNumber(left)) {
+                    return left;
+                }
+                if (isNumber(left, -0.0) && Expressions.producesNumber(right)) {
+                    return right;
+                }
+                break;
+            case STAR:
+                if (isNumber(right, 1.0) && Expressions.producesNumber(left)) {
+                    return left;
+                }
+                if (isNumber(left, 1.0) && Expressions.producesNumber(right)) {
+                    return right;
+                }
+                break;
+            case SLASH:
+                if (isNumber(right, 1.0) && Expressions.producesNumber(left)) {
+                    return left;
+                }
+                break;
+            case EQUAL_EQUAL:
+                return this.simplifyBooleanIdentity(binary, true);
+            case BANG_EQUAL:
+                return this.simplifyBooleanIdentity(binary, false);
+        }
+
+        return binary;
+    }
+
+    /**
+     * Simplifies {@code x == identity} or {@code x != !identity} (in either
+     * order) into {@code x}, when {@code x} produces a boolean.
+     *
+     * @param expr The equality or inequality expression.
+     * @param identity The boolean literal that is the identity of the
+     *                 operation.
+     *
+     * @return The simplified expression, or the expression itself if it
+     *         cannot be simplified.
+     */
+    private Expr simplifyBooleanIdentity(Binary expr, boolean identity) {
+        if (isBoolean(expr.getRight(), identity)
+            && Expressions.producesBoolean(expr.getLeft())) {
+            return expr.getLeft();
+        }
+        if (isBoolean(expr.getLeft(), identity)
+            && Expressions.producesBoolean(expr.getRight())) {
+            return expr.getRight();
+        }
+        return expr;
+    }
+
+    /**
+     * Checks if an expression is a numeric literal with exactly the given
+     * value (so {@code 0} and {@code -0} are different).
+     */
+    private static boolean isNumber(Expr expr, double value) {
+        return expr instanceof Literal literal
+            && literal.getValue() instanceof Double number
+            && Double.doubleToLongBits(number) == Double.doubleToLongBits(value);
+    }
+
+    /**
+     * Checks if an expression is a boolean literal with the given value.
+     */
+    private static boolean isBoolean(Expr expr, boolean value) {
+        return expr instanceof Literal literal
+            && literal.getValue() instanceof Boolean bool
+            && bool == value;
+    }
+
+}
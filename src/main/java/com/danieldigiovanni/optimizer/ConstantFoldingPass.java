@@ -0,0 +1,142 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.interpreter.EvaluationLimits;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.interpreter.exception.LoxBudgetExceededRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.token.TokenType;
+
+import java.util.Map;
+
+/**
+ * Optimization pass that evaluates constant subtrees and replaces them with
+ * literals of their results.
+ * <p>
+ * The tree is folded bottom up, so a node is folded when all of its children
+ * were folded into literals, and evaluating it only takes a single operation.
+ * A node whose evaluation fails (for example, {@code "a" - 1}) is left as it
+ * is, so that the error is still reported, and its ancestors are not folded.
+ * <p>
+ * A logical expression ("and" or "or") whose left operand is a literal is
+ * folded into whichever operand it results in, even if the right operand is
+ * not constant.
+ * <p>
+ * Folding evaluates the constant nodes within the limits of the evaluation
+ * of the expression (see {@link EvaluationLimits}). Once the step budget is
+ * exhausted, the rest of the tree is left as it is, to be evaluated (within
+ * the same budget) at runtime. If the evaluation is cancelled, the pass
+ * stops with a {@link LoxCancelledRuntimeException}.
+ */
+public class ConstantFoldingPass extends RewritingPass {
+
+    /**
+     * The interpreter used to evaluate constant nodes.
+     */
+    private final Interpreter interpreter;
+
+    /**
+     * Whether the step budget was exhausted, so nothing is folded anymore.
+     */
+    private boolean budgetExceeded = false;
+
+    public ConstantFoldingPass() {
+        this(EvaluationLimits.NONE);
+    }
+
+    /**
+     * Initialize a constant folding pass that evaluates constant nodes within
+     * limits.
+     *
+     * @param limits The limits on the evaluation of the constant nodes.
+     */
+    public ConstantFoldingPass(EvaluationLimits limits) {
+        this.interpreter = new Interpreter(Map.of(), limits);
+    }
+
+    @Override
+    public String getName() {
+        return "constant folding";
+    }
+
+    @Override
+    public Expr visit(Binary expr) {
+        return this.fold(super.visit(expr));
+    }
+
+    @Override
+    public Expr visit(Grouping expr) {
+        return this.fold(super.visit(expr));
+    }
+
+    @Override
+    public Expr visit(Unary expr) {
+        return this.fold(super.visit(expr));
+    }
+
+    @Override
+    public Expr visit(Logical expr) {
+        Expr rewritten = super.visit(expr);
+        if (
+            !(rewritten instanceof Logical logical)
+                || !(logical.getLeft() instanceof Literal left)
+        ) {
+            return rewritten;
+        }
+
+        // Lox truthiness: only nil and false are falsy
+        boolean truthy = left.getValue() != null
+            && !Boolean.FALSE.equals(left.getValue());
+        if (truthy == (logical.getOperator().getType() == TokenType.OR)) {
+            return left;
+        }
+        return logical.getRight();
+    }
+
+    /**
+     * Folds a node into a literal if all of its children are literals.
+     *
+     * @param expr The node, whose children were already folded.
+     *
+     * @return A literal of the result of the node, or the node itself if it
+     *         cannot be folded.
+     *
+     * @throws LoxCancelledRuntimeException If the evaluation was cancelled.
+     */
+    private Expr fold(Expr expr) {
+        if (this.budgetExceeded || !this.hasConstantChildren(expr)) {
+            return expr;
+        }
+        try {
+            return new Literal(expr.accept(this.interpreter));
+        } catch (LoxBudgetExceededRuntimeException exception) {
+            this.budgetExceeded = true;
+            return expr;
+        } catch (LoxCancelledRuntimeException exception) {
+            throw exception;
+        } catch (LoxRuntimeException exception) {
+            return expr;
+        }
+    }
+
+    private boolean hasConstantChildren(Expr expr) {
+        if (expr instanceof Binary binary) {
+            return binary.getLeft() instanceof Literal
+                && binary.getRight() instanceof Literal;
+        }
+        if (expr instanceof Grouping grouping) {
+            return grouping.getExpr() instanceof Literal;
+        }
+        if (expr instanceof Unary unary) {
+            return unary.getRight() instanceof Literal;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.token.TokenType;
+
+/**
+ * Optimization pass that removes double negations.
+ * <ul>
+ *     <li>
+ *         {@code !!x} becomes {@code x} when {@code x} produces a boolean,
+ *         since the truthiness of a boolean is the boolean itself.
+ *     </li>
+ *     <li>
+ *         {@code -(-x)} becomes {@code x} when {@code x} produces a number.
+ *         Negating a number twice gives back the same number (including
+ *         {@code -0} and {@code NaN}), whereas negating any other value is a
+ *         type error that must be kept.
+ *     </li>
+ * </ul>
+ */
+public class DoubleNegationPass extends RewritingPass {
+
+    @Override
+    public String getName() {
+        return "double negation removal";
+    }
+
+    @Override
+    public Expr visit(Unary expr) {
+        Expr rewritten = super.visit(expr);
+        if (!(rewritten instanceof Unary outer)
+            || !(Expressions.unwrap(outer.getRight()) instanceof Unary inner)
+            || outer.getOperator().getType() != inner.getOperator().getType()) {
+            return rewritten;
+        }
+
+        Expr operand = inner.getRight();
+        TokenType operator = outer.getOperator().getType();
+        if (operator == TokenType.BANG && Expressions.producesBoolean(operand)) {
+            return operand;
+        }
+        if (operator == TokenType.MINUS && Expressions.producesNumber(operand)) {
+            return operand;
+        }
+        return rewritten;
+    }
+
+}
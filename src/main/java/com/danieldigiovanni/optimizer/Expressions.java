@@ -0,0 +1,99 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.StaticType;
+import com.danieldigiovanni.expr.Unary;
+
+/**
+ * Shallow checks on the kind of value an expression produces, used by
+ * optimization passes to decide if a rewrite is safe.
+ * <p>
+ * The checks only look at the static type of the expression (if it is known)
+ * and at the kind of its root node, so they take constant time. An expression
+ * "produces" a type if it either evaluates to a value of that type or throws,
+ * in which case the rewritten expression throws the same error.
+ */
+final class Expressions {
+
+    private Expressions() { }
+
+    /**
+     * Removes any grouping nodes around an expression.
+     *
+     * @param expr The expression.
+     *
+     * @return The first descendant of the expression that is not a grouping.
+     */
+    static Expr unwrap(Expr expr) {
+        while (expr instanceof Grouping grouping) {
+            expr = grouping.getExpr();
+        }
+        return expr;
+    }
+
+    /**
+     * Checks if an expression always produces a number.
+     *
+     * @param expr The expression.
+     *
+     * @return {@code true} if the expression is known to produce a number.
+     */
+    static boolean producesNumber(Expr expr) {
+        if (expr.getStaticType() == StaticType.NUMBER) {
+            return true;
+        }
+        expr = unwrap(expr);
+        if (expr instanceof Literal literal) {
+            return literal.getValue() instanceof Double;
+        }
+        if (expr instanceof Unary unary) {
+            return switch (unary.getOperator().getType()) {
+                case MINUS -> true;
+                default -> false;
+            };
+        }
+        if (expr instanceof Binary binary) {
+            // Plus is excluded since it may produce a string
+            return switch (binary.getOperator().getType()) {
+                case MINUS, STAR, SLASH -> true;
+                default -> false;
+            };
+        }
+        return false;
+    }
+
+    /**
+     * Checks if an expression always produces a boolean.
+     *
+     * @param expr The expression.
+     *
+     * @return {@code true} if the expression is known to produce a boolean.
+     */
+    static boolean producesBoolean(Expr expr) {
+        if (expr.getStaticType() == StaticType.BOOLEAN) {
+            return true;
+        }
+        expr = unwrap(expr);
+        if (expr instanceof Literal literal) {
+            return literal.getValue() instanceof Boolean;
+        }
+        if (expr instanceof Unary unary) {
+            return switch (unary.getOperator().getType()) {
+                case BANG -> true;
+                default -> false;
+            };
+        }
+        if (expr instanceof Binary binary) {
+            return switch (binary.getOperator().getType()) {
+                case GREATER, GREATER_EQUAL, LESS, LESS_EQUAL, EQUAL_EQUAL,
+                    BANG_EQUAL -> true;
+                default -> false;
+            };
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+
+/**
+ * Optimization pass that removes {@link Grouping} nodes.
+ * <p>
+ * Parentheses are already reflected in the shape of the tree once it is
+ * parsed, so a grouping node only delegates to the expression it contains.
+ */
+public class GroupingEliminationPass extends RewritingPass {
+
+    @Override
+    public String getName() {
+        return "grouping elimination";
+    }
+
+    @Override
+    public Expr visit(Grouping expr) {
+        return expr.getExpr().accept(this);
+    }
+
+}
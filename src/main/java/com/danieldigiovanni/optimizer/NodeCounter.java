@@ -0,0 +1,51 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.expr.visitor.Visitor;
+
+/**
+ * Counts the nodes of an abstract syntax tree.
+ */
+public class NodeCounter implements Visitor<Integer> {
+
+    public int count(Expr expr) {
+        return expr.accept(this);
+    }
+
+    @Override
+    public Integer visit(Binary expr) {
+        return 1 + expr.getLeft().accept(this) + expr.getRight().accept(this);
+    }
+
+    @Override
+    public Integer visit(Grouping expr) {
+        return 1 + expr.getExpr().accept(this);
+    }
+
+    @Override
+    public Integer visit(Unary expr) {
+        return 1 + expr.getRight().accept(this);
+    }
+
+    @Override
+    public Integer visit(Literal expr) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(Logical expr) {
+        return 1 + expr.getLeft().accept(this) + expr.getRight().accept(this);
+    }
+
+    @Override
+    public Integer visit(Variable expr) {
+        return 1;
+    }
+
+}
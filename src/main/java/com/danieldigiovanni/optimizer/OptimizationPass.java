@@ -0,0 +1,32 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.visitor.Visitor;
+
+/**
+ * A rewrite of an abstract syntax tree that does not change the result of
+ * evaluating it (including the runtime errors it throws).
+ * <p>
+ * Passes are run in sequence by a {@link PassManager}.
+ */
+public interface OptimizationPass extends Visitor<Expr> {
+
+    /**
+     * Gets the name of the pass, used when reporting on the pass.
+     *
+     * @return The name of the pass.
+     */
+    String getName();
+
+    /**
+     * Applies the pass to an expression.
+     *
+     * @param expr The expression to be rewritten.
+     *
+     * @return The rewritten expression.
+     */
+    default Expr apply(Expr expr) {
+        return expr.accept(this);
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.EvaluationLimits;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs a configurable sequence of optimization passes over an abstract syntax
+ * tree, and reports the timing and the number of nodes removed by each pass.
+ */
+public class PassManager {
+
+    /**
+     * The factories of the passes to be run, in order. A new instance of each
+     * pass is created for every run, so passes may keep state.
+     */
+    private final List<Supplier<OptimizationPass>> passes;
+
+    /**
+     * The reports of the passes of the most recent run.
+     */
+    private final List<PassReport> reports = new ArrayList<>();
+
+    /**
+     * Initialize a pass manager with a sequence of passes.
+     *
+     * @param passes The factories of the passes to be run, in order.
+     */
+    public PassManager(List<Supplier<OptimizationPass>> passes) {
+        this.passes = List.copyOf(passes);
+    }
+
+    /**
+     * Creates a pass manager with the default sequence of passes: grouping
+     * elimination, double negation removal, algebraic simplification and
+     * constant folding.
+     *
+     * @return The pass manager.
+     */
+    public static PassManager defaultPipeline() {
+        return defaultPipeline(EvaluationLimits.NONE);
+    }
+
+    /**
+     * Creates a pass manager with the default sequence of passes, whose
+     * constant folding pass evaluates constant subtrees within limits.
+     *
+     * @param limits The limits on the evaluation of constant subtrees.
+     *
+     * @return The pass manager.
+     */
+    public static PassManager defaultPipeline(EvaluationLimits limits) {
+        return new PassManager(List.of(
+            GroupingEliminationPass::new,
+            DoubleNegationPass::new,
+            AlgebraicSimplificationPass::new,
+            () -> new ConstantFoldingPass(limits)
+        ));
+    }
+
+    /**
+     * Creates a pass manager with the default sequence of passes but constant
+     * folding, for expressions evaluated by a memoizing interpreter, which
+     * caches the results of the constant subtrees instead, across
+     * expressions.
+     *
+     * @return The pass manager.
+     */
+    public static PassManager memoizingPipeline() {
+        return new PassManager(List.of(
+            GroupingEliminationPass::new,
+            DoubleNegationPass::new,
+            AlgebraicSimplificationPass::new
+        ));
+    }
+
+    /**
+     * Runs all passes over an expression.
+     *
+     * @param expr The expression to be optimized.
+     *
+     * @return The optimized expression.
+     */
+    public Expr optimize(Expr expr) {
+        this.reports.clear();
+        NodeCounter counter = new NodeCounter();
+        int nodes = counter.count(expr);
+
+        for (Supplier<OptimizationPass> factory : this.passes) {
+            OptimizationPass pass = factory.get();
+
+            long start = System.nanoTime();
+            expr = pass.apply(expr);
+            long elapsed = System.nanoTime() - start;
+
+            int nodesAfter = counter.count(expr);
+            this.reports.add(
+                new PassReport(pass.getName(), elapsed, nodes, nodesAfter)
+            );
+            nodes = nodesAfter;
+        }
+
+        return expr;
+    }
+
+    /**
+     * Gets the reports of the passes of the most recent run, in the order the
+     * passes were run.
+     *
+     * @return The reports of the passes.
+     */
+    public List<PassReport> getReports() {
+        return Collections.unmodifiableList(this.reports);
+    }
+
+}
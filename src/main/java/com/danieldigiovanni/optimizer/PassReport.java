@@ -0,0 +1,39 @@
+package com.danieldigiovanni.optimizer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Report of a single run of an optimization pass.
+ */
+@Getter
+@AllArgsConstructor
+public class PassReport {
+
+    private final String passName;
+    private final long elapsedNanos;
+    private final int nodesBefore;
+    private final int nodesAfter;
+
+    /**
+     * Gets the number of nodes removed by the pass.
+     *
+     * @return The number of nodes removed by the pass.
+     */
+    public int getNodesRemoved() {
+        return this.nodesBefore - this.nodesAfter;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s: %.3f ms, %d nodes removed (%d -> %d)",
+            this.passName,
+            this.elapsedNanos / 1_000_000.0,
+            this.getNodesRemoved(),
+            this.nodesBefore,
+            this.nodesAfter
+        );
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+
+/**
+ * Base class of optimization passes that rewrite some kinds of nodes and
+ * leave the others as they are.
+ * <p>
+ * By default, every node is rebuilt from its rewritten children. A node is
+ * only rebuilt if any of its children changed, so untouched subtrees are
+ * shared with the original tree. Rebuilt nodes do not keep their static type
+ * (see {@link com.danieldigiovanni.expr.StaticType}), so a rewritten tree must
+ * be type checked again.
+ */
+public abstract class RewritingPass implements OptimizationPass {
+
+    @Override
+    public Expr visit(Binary expr) {
+        Expr left = expr.getLeft().accept(this);
+        Expr right = expr.getRight().accept(this);
+        if (left == expr.getLeft() && right == expr.getRight()) {
+            return expr;
+        }
+        return new Binary(left, expr.getOperator(), right);
+    }
+
+    @Override
+    public Expr visit(Grouping expr) {
+        Expr inner = expr.getExpr().accept(this);
+        if (inner == expr.getExpr()) {
+            return expr;
+        }
+        return new Grouping(inner);
+    }
+
+    @Override
+    public Expr visit(Unary expr) {
+        Expr right = expr.getRight().accept(this);
+        if (right == expr.getRight()) {
+            return expr;
+        }
+        return new Unary(expr.getOperator(), right);
+    }
+
+    @Override
+    public Expr visit(Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visit(Logical expr) {
+        Expr left = expr.getLeft().accept(this);
+        Expr right = expr.getRight().accept(this);
+        if (left == expr.getLeft() && right == expr.getRight()) {
+            return expr;
+        }
+        return new Logical(left, expr.getOperator(), right);
+    }
+
+    @Override
+    public Expr visit(Variable expr) {
+        return expr;
+    }
+
+}
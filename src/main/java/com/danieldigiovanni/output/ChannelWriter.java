@@ -0,0 +1,89 @@
+package com.danieldigiovanni.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A writer that encodes characters into a direct byte buffer, and writes the
+ * buffer to a channel only when it is full or when the writer is flushed.
+ * <p>
+ * Unlike a {@link java.io.PrintStream}, it takes no lock and never flushes
+ * on its own, so writing a line costs a copy into the buffer.
+ */
+public class ChannelWriter extends Writer {
+
+    /**
+     * The default size of the buffer, in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+
+    private final CharsetEncoder encoder;
+
+    /**
+     * The encoded bytes that were not written to the channel yet.
+     */
+    private final ByteBuffer buffer;
+
+    public ChannelWriter(WritableByteChannel channel, Charset charset) {
+        this(channel, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(char[] characters, int offset, int length) throws IOException {
+        CharBuffer input = CharBuffer.wrap(characters, offset, length);
+        while (true) {
+            CoderResult result = this.encoder.encode(input, this.buffer, false);
+            if (!result.isOverflow()) {
+                break;
+            }
+            this.drain();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        CharBuffer empty = CharBuffer.allocate(0);
+        while (this.encoder.encode(empty, this.buffer, true).isOverflow()) {
+            this.drain();
+        }
+        while (this.encoder.flush(this.buffer).isOverflow()) {
+            this.drain();
+        }
+        this.drain();
+        this.channel.close();
+    }
+
+    /**
+     * Writes the whole buffer to the channel.
+     */
+    private void drain() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+}
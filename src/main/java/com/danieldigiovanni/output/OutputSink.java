@@ -0,0 +1,77 @@
+package com.danieldigiovanni.output;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Destination of the output of the Lox interpreter: the results of the
+ * expressions, and the diagnostics (errors and statistics).
+ * <p>
+ * Output may be buffered until {@link #flush()} is called, so a sink must be
+ * flushed (or closed) before the program exits.
+ */
+public interface OutputSink extends AutoCloseable {
+
+    /**
+     * Writes a line of result.
+     *
+     * @param line The line, without its line terminator.
+     */
+    void result(CharSequence line);
+
+    /**
+     * Writes a line of diagnostic.
+     *
+     * @param line The line, without its line terminator.
+     */
+    void diagnostic(CharSequence line);
+
+    /**
+     * Writes all the buffered output.
+     */
+    void flush();
+
+    /**
+     * Flushes the sink and releases its resources.
+     */
+    @Override
+    void close();
+
+    /**
+     * Creates a sink to stdout and stderr that flushes every line, for
+     * interactive use.
+     *
+     * @return The sink.
+     */
+    static OutputSink interactive() {
+        return new WriterOutputSink(
+            new OutputStreamWriter(System.out, Charset.defaultCharset()),
+            new OutputStreamWriter(System.err, Charset.defaultCharset()),
+            true
+        );
+    }
+
+    /**
+     * Creates a sink that writes straight to the stdout and stderr file
+     * descriptors through large buffers, which are only written when they
+     * are full or when the sink is flushed.
+     *
+     * @return The sink.
+     */
+    static OutputSink batch() {
+        return new WriterOutputSink(
+            new ChannelWriter(
+                new FileOutputStream(FileDescriptor.out).getChannel(),
+                Charset.defaultCharset()
+            ),
+            new ChannelWriter(
+                new FileOutputStream(FileDescriptor.err).getChannel(),
+                Charset.defaultCharset()
+            ),
+            false
+        );
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.danieldigiovanni.output;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An output sink that records the lines written to it in memory, to be
+ * replayed later to another sink.
+ * <p>
+ * This keeps the output of a run separate from the ones of other runs that
+ * are running at the same time.
+ */
+public class RecordingOutputSink implements OutputSink {
+
+    private final List<String> results = new ArrayList<>();
+
+    private final List<String> diagnostics = new ArrayList<>();
+
+    @Override
+    public void result(CharSequence line) {
+        this.results.add(line.toString());
+    }
+
+    @Override
+    public void diagnostic(CharSequence line) {
+        this.diagnostics.add(line.toString());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return The results recorded so far, as a read-only view.
+     */
+    public List<String> getResults() {
+        return Collections.unmodifiableList(this.results);
+    }
+
+    /**
+     * @return The diagnostics recorded so far, as a read-only view.
+     */
+    public List<String> getDiagnostics() {
+        return Collections.unmodifiableList(this.diagnostics);
+    }
+
+    /**
+     * Writes the recorded lines to another sink, the results before the
+     * diagnostics, each in the order they were recorded.
+     *
+     * @param sink The sink the lines are written to.
+     */
+    public void replay(OutputSink sink) {
+        for (String line : this.results) {
+            sink.result(line);
+        }
+        for (String line : this.diagnostics) {
+            sink.diagnostic(line);
+        }
+    }
+
+}
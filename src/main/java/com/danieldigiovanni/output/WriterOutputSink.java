@@ -0,0 +1,112 @@
+package com.danieldigiovanni.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * An output sink that writes results and diagnostics to two writers.
+ * <p>
+ * Lines are copied into a reusable character buffer before being written,
+ * so that writing a {@link StringBuilder} does not create a string.
+ */
+public class WriterOutputSink implements OutputSink {
+
+    /**
+     * The writer of the results.
+     */
+    private final Writer results;
+
+    /**
+     * The writer of the diagnostics.
+     */
+    private final Writer diagnostics;
+
+    /**
+     * Whether both writers are flushed after every line.
+     */
+    private final boolean flushEachLine;
+
+    /**
+     * The buffer lines are copied into before being written.
+     */
+    private char[] line = new char[256];
+
+    public WriterOutputSink(Writer results, Writer diagnostics, boolean flushEachLine) {
+        this.results = results;
+        this.diagnostics = diagnostics;
+        this.flushEachLine = flushEachLine;
+    }
+
+    @Override
+    public void result(CharSequence line) {
+        this.write(this.results, line);
+    }
+
+    @Override
+    public void diagnostic(CharSequence line) {
+        /*
+         * Results are flushed first, so that a diagnostic does not appear
+         * before the results that were written before it
+         */
+        if (this.flushEachLine) {
+            this.flush(this.results);
+        }
+        this.write(this.diagnostics, line);
+    }
+
+    @Override
+    public void flush() {
+        this.flush(this.results);
+        this.flush(this.diagnostics);
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.results.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            try {
+                this.diagnostics.close();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    private void write(Writer writer, CharSequence text) {
+        int length = text.length();
+        if (this.line.length < length + 1) {
+            this.line = new char[Math.max(length + 1, this.line.length * 2)];
+        }
+
+        if (text instanceof String string) {
+            string.getChars(0, length, this.line, 0);
+        } else if (text instanceof StringBuilder builder) {
+            builder.getChars(0, length, this.line, 0);
+        } else {
+            text.toString().getChars(0, length, this.line, 0);
+        }
+        this.line[length] = '\n';
+
+        try {
+            writer.write(this.line, 0, length + 1);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        if (this.flushEachLine) {
+            this.flush(writer);
+        }
+    }
+
+    private void flush(Writer writer) {
+        try {
+            writer.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
@@ -4,7 +4,9 @@ import com.danieldigiovanni.expr.Binary;
 import com.danieldigiovanni.expr.Expr;
 import com.danieldigiovanni.expr.Grouping;
 import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
 import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
 import com.danieldigiovanni.parser.exception.EmptyTokenListParseException;
 import com.danieldigiovanni.parser.exception.LoxParseException;
 import com.danieldigiovanni.parser.exception.MissingRightParenParseException;
@@ -70,15 +72,67 @@ public class Parser {
      * The expression rule is:
      *
      * <pre>{@code
-     * expression -> equality
+     * expression -> or
      * }</pre>
      *
-     * which means we just check for the equality rule.
+     * which means we just check for the or rule.
      *
      * @return The expression corresponding to the given list of tokens.
      */
     private Expr expression() {
-        return this.equality();
+        return this.or();
+    }
+
+    /**
+     * Or rule.
+     * <p>
+     * The or rule is:
+     *
+     * <pre>{@code
+     * or -> and ( "or" and )*
+     * }</pre>
+     *
+     * which means we check for the and rule, followed by zero or more
+     * logical or operators with another and rule.
+     *
+     * @return The expression representing the or rule.
+     */
+    private Expr or() {
+        Expr expr = this.and();
+
+        while (this.matchTokenType(TokenType.OR)) {
+            Token operator = this.consume();
+            Expr right = this.and();
+            expr = new Logical(expr, operator, right);
+        }
+
+        return expr;
+    }
+
+    /**
+     * And rule.
+     * <p>
+     * The and rule is:
+     *
+     * <pre>{@code
+     * and -> equality ( "and" equality )*
+     * }</pre>
+     *
+     * which means we check for the equality rule, followed by zero or more
+     * logical and operators with another equality.
+     *
+     * @return The expression representing the and rule.
+     */
+    private Expr and() {
+        Expr expr = this.equality();
+
+        while (this.matchTokenType(TokenType.AND)) {
+            Token operator = this.consume();
+            Expr right = this.equality();
+            expr = new Logical(expr, operator, right);
+        }
+
+        return expr;
     }
 
     /**
@@ -227,7 +281,8 @@ public class Parser {
      * The primary rule is:
      *
      * <pre>{@code
-     * primary -> NUMBER | STRING | "true" | "false" | "nil" | "(" expression ")"
+     * primary -> NUMBER | STRING | "true" | "false" | "nil" | IDENTIFIER
+     *          | "(" expression ")"
      * }</pre>
      *
      * which means we check for either one of:
@@ -237,6 +292,7 @@ public class Parser {
      *     <li>the literal {@code true}, or</li>
      *     <li>the literal {@code false}, or</li>
      *     <li>the literal {@code nil}, or</li>
+     *     <li>a variable, or</li>
      *     <li>an expression surrounded by parentheses.</li>
      * </ul>
      *
@@ -260,6 +316,11 @@ public class Parser {
             this.consume();
             return literal;
         }
+        if (this.matchTokenType(TokenType.IDENTIFIER)) {
+            Variable variable = new Variable(this.peek());
+            this.consume();
+            return variable;
+        }
         if (this.matchTokenType(TokenType.LEFT_PAREN)) {
             // Consume left parenthesis
             this.consume();
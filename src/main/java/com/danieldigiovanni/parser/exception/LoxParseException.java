@@ -1,13 +1,16 @@
 package com.danieldigiovanni.parser.exception;
 
+import com.danieldigiovanni.exception.LoxException;
 import com.danieldigiovanni.token.Token;
 import lombok.Getter;
 
+import java.util.function.Supplier;
+
 /**
  * Exception representing an exception when parsing Lox code.
  */
 @Getter
-public class LoxParseException extends RuntimeException {
+public class LoxParseException extends LoxException {
 
     /**
      * The token that caused the exception.
@@ -26,4 +29,17 @@ public class LoxParseException extends RuntimeException {
         this.token = token;
     }
 
+    /**
+     * Construct a {@link LoxParseException} with the token that caused the
+     * exception and the formatter of its error message, which is only called
+     * if the message is used.
+     *
+     * @param token The token that caused the exception.
+     * @param message The formatter of the error message.
+     */
+    public LoxParseException(Token token, Supplier<String> message) {
+        super(message, null);
+        this.token = token;
+    }
+
 }
@@ -0,0 +1,46 @@
+package com.danieldigiovanni.script;
+
+import com.danieldigiovanni.LoxProgram;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * A Lox script compiled by a {@link LoxScriptEngine}, which is evaluated
+ * again without being lexed or parsed again.
+ */
+public class LoxCompiledScript extends CompiledScript {
+
+    private final LoxScriptEngine engine;
+
+    private final LoxProgram program;
+
+    LoxCompiledScript(LoxScriptEngine engine, LoxProgram program) {
+        this.engine = engine;
+        this.program = program;
+    }
+
+    /**
+     * Evaluates the script.
+     *
+     * @param context The context whose error writer the diagnostics are
+     *                written to.
+     *
+     * @return The value of the script: a {@link Double}, a {@link String},
+     *         a {@link Boolean}, or {@code null} for {@code nil}.
+     *
+     * @throws ScriptException If there is a runtime error.
+     */
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+        return this.engine.run(this.program, context);
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return this.engine;
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.danieldigiovanni.script;
+
+import com.danieldigiovanni.LoxEngine;
+import com.danieldigiovanni.LoxProgram;
+import com.danieldigiovanni.LoxResult;
+import com.danieldigiovanni.cache.LruCache;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Lox interpreter as a {@code javax.script} engine.
+ * <p>
+ * A script is a Lox expression, and its value is the value of the
+ * expression: a {@link Double}, a {@link String}, a {@link Boolean}, or
+ * {@code null} for {@code nil}. The diagnostics of a script are written to the error
+ * writer of the context, and an error in a script is thrown as a
+ * {@link ScriptException}. The bindings of the context are the variables of
+ * scripts, those of the engine scope hiding those of the global scope;
+ * numbers, strings, booleans and {@code null} are converted to Lox values,
+ * and other values are not bound.
+ * <p>
+ * The scripts compiled by {@link #eval(String, ScriptContext)} are kept in a
+ * bounded cache, so evaluating a script again does not lex nor parse it
+ * again. The engine can be used from many threads at the same time.
+ */
+public class LoxScriptEngine extends AbstractScriptEngine implements Compilable {
+
+    /**
+     * The maximum number of compiled scripts cached.
+     */
+    private static final int CACHE_CAPACITY = 256;
+
+    private final LoxScriptEngineFactory factory;
+
+    private final LoxEngine engine = new LoxEngine();
+
+    /**
+     * The most recently evaluated scripts, by source. Guarded by itself.
+     */
+    private final LruCache<String, LoxCompiledScript> compiledScripts =
+        new LruCache<>(CACHE_CAPACITY);
+
+    LoxScriptEngine(LoxScriptEngineFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        LoxCompiledScript compiled;
+        synchronized (this.compiledScripts) {
+            compiled = this.compiledScripts.get(script);
+        }
+        if (compiled == null) {
+            compiled = this.compile(script, context);
+            synchronized (this.compiledScripts) {
+                this.compiledScripts.put(script, compiled);
+            }
+        }
+        return compiled.eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return this.eval(read(reader), context);
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        return this.compile(script, this.context);
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return this.compile(read(script));
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return this.factory;
+    }
+
+    /**
+     * Compiles a script.
+     *
+     * @param script The source of the script.
+     * @param context The context whose error writer the diagnostics are
+     *                written to, if there is a compilation error.
+     *
+     * @return The compiled script.
+     *
+     * @throws ScriptException If there is a compilation error.
+     */
+    private LoxCompiledScript compile(String script, ScriptContext context) throws ScriptException {
+        LoxProgram program = this.engine.compile(script);
+        if (program.hasError()) {
+            throw error(program.getDiagnostics(), context);
+        }
+        return new LoxCompiledScript(this, program);
+    }
+
+    /**
+     * Runs a compiled program.
+     *
+     * @param program The program.
+     * @param context The context whose error writer the diagnostics are
+     *                written to.
+     *
+     * @return The value of the program.
+     *
+     * @throws ScriptException If there is a runtime error.
+     */
+    Object run(LoxProgram program, ScriptContext context) throws ScriptException {
+        LoxResult result = this.engine.run(program, bindings(context));
+        if (result.hasError()) {
+            throw error(result.getDiagnostics(), context);
+        }
+        write(result.getDiagnostics(), context);
+        return result.getValue();
+    }
+
+    /**
+     * Converts the bindings of a context to the variables of a script.
+     *
+     * @param context The context.
+     *
+     * @return The values of the variables, by name.
+     */
+    private static Map<String, Object> bindings(ScriptContext context) {
+        Map<String, Object> variables = new HashMap<>();
+        for (int scope : new int[] { ScriptContext.GLOBAL_SCOPE, ScriptContext.ENGINE_SCOPE }) {
+            Bindings bindings = context.getBindings(scope);
+            if (bindings == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+                Object value = binding.getValue();
+                if (value instanceof Number number) {
+                    variables.put(binding.getKey(), number.doubleValue());
+                } else if (value instanceof CharSequence string) {
+                    variables.put(binding.getKey(), string.toString());
+                } else if (value == null || value instanceof Boolean) {
+                    variables.put(binding.getKey(), value);
+                }
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Writes the diagnostics of a script, and builds the exception of its
+     * error.
+     *
+     * @param diagnostics The diagnostics, the first of which is the error.
+     * @param context The context whose error writer the diagnostics are
+     *                written to.
+     *
+     * @return The exception to be thrown.
+     */
+    private static ScriptException error(List<String> diagnostics, ScriptContext context) {
+        write(diagnostics, context);
+        return new ScriptException(
+            diagnostics.isEmpty() ? "Error" : diagnostics.get(0)
+        );
+    }
+
+    private static void write(List<String> diagnostics, ScriptContext context) {
+        if (diagnostics.isEmpty()) {
+            return;
+        }
+        Writer writer = context.getErrorWriter();
+        try {
+            for (String line : diagnostics) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+        } catch (IOException exception) {
+            // Diagnostics are best-effort, the error is thrown anyway
+        }
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        StringWriter source = new StringWriter();
+        try {
+            reader.transferTo(source);
+        } catch (IOException exception) {
+            throw new ScriptException(exception);
+        }
+        return source.toString();
+    }
+
+}
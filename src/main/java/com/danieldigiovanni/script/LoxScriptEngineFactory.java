@@ -0,0 +1,124 @@
+package com.danieldigiovanni.script;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * The factory of {@link LoxScriptEngine}s, found by
+ * {@link javax.script.ScriptEngineManager} through
+ * {@code META-INF/services/javax.script.ScriptEngineFactory}.
+ */
+public class LoxScriptEngineFactory implements ScriptEngineFactory {
+
+    private static final String ENGINE_NAME = "jlox";
+
+    private static final String ENGINE_VERSION = "1.0";
+
+    private static final String LANGUAGE_NAME = "Lox";
+
+    private static final String LANGUAGE_VERSION = "1.0";
+
+    private static final List<String> EXTENSIONS = List.of("lox");
+
+    private static final List<String> MIME_TYPES = List.of("application/x-lox");
+
+    private static final List<String> NAMES = List.of("lox", "Lox", "jlox");
+
+    @Override
+    public String getEngineName() {
+        return ENGINE_NAME;
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return ENGINE_VERSION;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return EXTENSIONS;
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return NAMES;
+    }
+
+    @Override
+    public String getLanguageName() {
+        return LANGUAGE_NAME;
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return LANGUAGE_VERSION;
+    }
+
+    @Override
+    public Object getParameter(String key) {
+        switch (key) {
+            case ScriptEngine.ENGINE:
+                return ENGINE_NAME;
+            case ScriptEngine.ENGINE_VERSION:
+                return ENGINE_VERSION;
+            case ScriptEngine.NAME:
+                return NAMES.get(0);
+            case ScriptEngine.LANGUAGE:
+                return LANGUAGE_NAME;
+            case ScriptEngine.LANGUAGE_VERSION:
+                return LANGUAGE_VERSION;
+            case "THREADING":
+                // Scripts share no state, so they can run at the same time
+                return "STATELESS";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Lox has no methods, so this is only the usual syntax of a method call,
+     * which Lox cannot run, for the tools that display it.
+     */
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return obj + "." + m + "(" + String.join(", ", args) + ")";
+    }
+
+    /**
+     * @return A string literal, whose value is the result of the program.
+     *         Lox strings cannot hold double quotes, so they are removed.
+     */
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        return '"' + toDisplay.replace("\"", "") + '"';
+    }
+
+    /**
+     * A Lox program is a single expression.
+     *
+     * @throws IllegalArgumentException If there is not exactly one
+     *                                  statement.
+     */
+    @Override
+    public String getProgram(String... statements) {
+        if (statements.length != 1) {
+            throw new IllegalArgumentException(
+                "A Lox program is a single expression, not "
+                    + statements.length
+            );
+        }
+        return statements[0];
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new LoxScriptEngine(this);
+    }
+
+}
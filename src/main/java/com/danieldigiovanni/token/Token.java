@@ -11,7 +11,7 @@ import lombok.Getter;
 public class Token {
 
     private final TokenType type;
-    private final String lexeme;
+    private final CharSequence lexeme;
     private final Object literal;
     private final int lineNumber;
 
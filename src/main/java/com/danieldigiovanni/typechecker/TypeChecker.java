@@ -0,0 +1,267 @@
+package com.danieldigiovanni.typechecker;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.StaticType;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.typechecker.exception.BinaryOperandsTypeException;
+import com.danieldigiovanni.typechecker.exception.LoxTypeException;
+import com.danieldigiovanni.typechecker.exception.PlusOperandsTypeException;
+import com.danieldigiovanni.typechecker.exception.UnaryOperandTypeException;
+
+/**
+ * Static type inference over an abstract syntax tree.
+ * <p>
+ * The type checker rebuilds the tree with every node labelled with its static
+ * type (see {@link Expr#getStaticType()}), and reports type errors that are
+ * certain to happen at runtime as {@link LoxTypeException}s. Nodes whose type
+ * cannot be proven are labelled {@link StaticType#UNKNOWN} and keep their
+ * runtime type checks.
+ * <p>
+ * Type errors are reported in evaluation order (left operand, right operand,
+ * then operator), so the error reported is the one the interpreter would have
+ * thrown first. Once a node that may fail at runtime (labelled
+ * {@link StaticType#UNKNOWN}) was seen, later type errors are not certain to
+ * be the first error anymore, so they are left to runtime as well.
+ */
+public class TypeChecker implements Visitor<Expr> {
+
+    /**
+     * Whether a node that may fail at runtime was seen, in evaluation order.
+     */
+    private boolean mayHaveFailed = false;
+
+    /**
+     * Type checks an expression.
+     *
+     * @param expr The expression to be type checked.
+     *
+     * @return The same expression, with every node labelled with its static
+     *         type.
+     *
+     * @throws LoxTypeException If the expression is certain to fail a type
+     *                          check at runtime.
+     */
+    public Expr check(Expr expr) {
+        this.mayHaveFailed = false;
+        return expr.accept(this);
+    }
+
+    @Override
+    public Expr visit(Binary expr) {
+        Expr left = expr.getLeft().accept(this);
+        Expr right = expr.getRight().accept(this);
+        StaticType leftType = left.getStaticType();
+        StaticType rightType = right.getStaticType();
+
+        StaticType type;
+        if (leftType == StaticType.UNKNOWN || rightType == StaticType.UNKNOWN) {
+            type = StaticType.UNKNOWN;
+        } else {
+            switch (expr.getOperator().getType()) {
+                case PLUS:
+                    // Plus operation can operate on two numbers or two strings
+                    if (leftType != rightType
+                        || (leftType != StaticType.NUMBER
+                            && leftType != StaticType.STRING)) {
+                        type = this.typeError(
+                            new PlusOperandsTypeException(expr.getOperator())
+                        );
+                    } else {
+                        type = leftType;
+                    }
+                    break;
+                case MINUS:
+                case STAR:
+                case SLASH:
+                    type = this.checkNumericOperands(
+                        expr,
+                        leftType,
+                        rightType,
+                        StaticType.NUMBER
+                    );
+                    break;
+                case GREATER:
+                case GREATER_EQUAL:
+                case LESS:
+                case LESS_EQUAL:
+                    type = this.checkNumericOperands(
+                        expr,
+                        leftType,
+                        rightType,
+                        StaticType.BOOLEAN
+                    );
+                    break;
+                case EQUAL_EQUAL:
+                case BANG_EQUAL:
+                    // Equality can operate on any types
+                    type = StaticType.BOOLEAN;
+                    break;
+                default:
+                    // Unknown operators are left to fail at runtime
+                    type = StaticType.UNKNOWN;
+            }
+        }
+
+        return new Binary(left, expr.getOperator(), right, this.label(type));
+    }
+
+    @Override
+    public Expr visit(Grouping expr) {
+        Expr inner = expr.getExpr().accept(this);
+        return new Grouping(inner, inner.getStaticType());
+    }
+
+    @Override
+    public Expr visit(Unary expr) {
+        Expr right = expr.getRight().accept(this);
+        StaticType rightType = right.getStaticType();
+
+        StaticType type;
+        if (rightType == StaticType.UNKNOWN) {
+            type = StaticType.UNKNOWN;
+        } else {
+            switch (expr.getOperator().getType()) {
+                case MINUS:
+                    if (rightType != StaticType.NUMBER) {
+                        type = this.typeError(
+                            new UnaryOperandTypeException(expr.getOperator())
+                        );
+                    } else {
+                        type = StaticType.NUMBER;
+                    }
+                    break;
+                case BANG:
+                    type = StaticType.BOOLEAN;
+                    break;
+                default:
+                    // Unknown operators are left to fail at runtime
+                    type = StaticType.UNKNOWN;
+            }
+        }
+
+        return new Unary(expr.getOperator(), right, this.label(type));
+    }
+
+    @Override
+    public Expr visit(Literal expr) {
+        return new Literal(expr.getValue(), this.label(typeOf(expr.getValue())));
+    }
+
+    @Override
+    public Expr visit(Logical expr) {
+        Expr left = expr.getLeft().accept(this);
+
+        /*
+         * The right operand is only evaluated if the left one does not decide
+         * the result, so its type errors are not certain to happen. If it
+         * fails to type check, it is kept unchecked so that its errors are
+         * left to runtime.
+         */
+        Expr right;
+        try {
+            right = expr.getRight().accept(this);
+        } catch (LoxTypeException exception) {
+            right = expr.getRight();
+        }
+
+        // The result is one of the operands, so its type is only known if both agree
+        StaticType type = left.getStaticType() == right.getStaticType()
+            ? left.getStaticType()
+            : StaticType.UNKNOWN;
+
+        return new Logical(left, expr.getOperator(), right, this.label(type));
+    }
+
+    @Override
+    public Expr visit(Variable expr) {
+        // Variables are bound at runtime, and may not be bound at all
+        return new Variable(expr.getName(), this.label(StaticType.UNKNOWN));
+    }
+
+    /**
+     * Gets the static type of a literal value.
+     *
+     * @param value The literal value.
+     *
+     * @return The static type of the value.
+     */
+    private static StaticType typeOf(Object value) {
+        if (value == null) {
+            return StaticType.NIL;
+        }
+        if (value instanceof Double) {
+            return StaticType.NUMBER;
+        }
+        if (value instanceof Boolean) {
+            return StaticType.BOOLEAN;
+        }
+        if (value instanceof CharSequence) {
+            return StaticType.STRING;
+        }
+        return StaticType.UNKNOWN;
+    }
+
+    /**
+     * Checks that both operands of a binary operation that operates on
+     * numbers are numbers.
+     *
+     * @param expr The binary expression.
+     * @param leftType The static type of the left operand.
+     * @param rightType The static type of the right operand.
+     * @param resultType The static type of the result of the operation.
+     *
+     * @return The static type of the result of the operation, or
+     *         {@link StaticType#UNKNOWN} if an operand is not a number but the
+     *         error is left to runtime (see {@link #typeError}).
+     *
+     * @throws BinaryOperandsTypeException If either operand is not a number.
+     */
+    private StaticType checkNumericOperands(Binary expr, StaticType leftType, StaticType rightType, StaticType resultType) {
+        if (leftType != StaticType.NUMBER || rightType != StaticType.NUMBER) {
+            return this.typeError(
+                new BinaryOperandsTypeException(expr.getOperator())
+            );
+        }
+        return resultType;
+    }
+
+    /**
+     * Reports a type error, unless a node that may fail at runtime was seen
+     * before it, in which case the error is not certain to be the first one
+     * and is left to runtime.
+     *
+     * @param exception The type error.
+     *
+     * @return {@link StaticType#UNKNOWN}, if the error is left to runtime.
+     *
+     * @throws LoxTypeException If the error is certain to be the first one.
+     */
+    private StaticType typeError(LoxTypeException exception) {
+        if (!this.mayHaveFailed) {
+            throw exception;
+        }
+        return StaticType.UNKNOWN;
+    }
+
+    /**
+     * Records the static type of a node that was just checked, noting if the
+     * node may fail at runtime.
+     *
+     * @param type The static type of the node.
+     *
+     * @return The same static type.
+     */
+    private StaticType label(StaticType type) {
+        if (type == StaticType.UNKNOWN) {
+            this.mayHaveFailed = true;
+        }
+        return type;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.danieldigiovanni.typechecker.exception;
+
+import com.danieldigiovanni.token.Token;
+
+import java.util.function.Supplier;
+
+/**
+ * Type exception representing the case where a binary operation is certain
+ * to fail at runtime due to incorrect operand types for the operator.
+ * <p>
+ * This is the compile-time counterpart of
+ * {@link com.danieldigiovanni.interpreter.exception.LoxBinaryOperandsTypeRuntimeException}.
+ */
+public class BinaryOperandsTypeException extends LoxTypeException {
+
+    /**
+     * Constructs a {@link BinaryOperandsTypeException} with the token of the
+     * operator that caused the exception.
+     * <p>
+     * Note that <b>this constructor assumes that the operator takes two
+     * numeric operands</b>.
+     *
+     * @param token The operator token that caused the exception.
+     */
+    public BinaryOperandsTypeException(Token token) {
+        this(
+            token,
+            () -> String.format(
+                "Binary %s operator: operands must be both numbers",
+                token.getType()
+            )
+        );
+    }
+
+    /**
+     * Constructs a {@link BinaryOperandsTypeException} with the token of the
+     * operator that caused the exception and an error message.
+     *
+     * @param token The operator token that caused the exception.
+     * @param message The formatter of the error message.
+     */
+    protected BinaryOperandsTypeException(Token token, Supplier<String> message) {
+        super(token, message);
+    }
+
+}
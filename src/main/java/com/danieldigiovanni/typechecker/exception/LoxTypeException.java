@@ -0,0 +1,40 @@
+package com.danieldigiovanni.typechecker.exception;
+
+import com.danieldigiovanni.parser.exception.LoxParseException;
+import com.danieldigiovanni.token.Token;
+
+import java.util.function.Supplier;
+
+/**
+ * Exception representing a type error found in Lox code before it is
+ * executed.
+ * <p>
+ * Type errors are reported in the same way as parse errors, since both are
+ * found at compile time.
+ */
+public class LoxTypeException extends LoxParseException {
+
+    /**
+     * Construct a {@link LoxTypeException} with the token that caused the
+     * exception and an error message.
+     *
+     * @param token The token that caused the exception.
+     * @param message The error message.
+     */
+    public LoxTypeException(Token token, String message) {
+        super(token, message);
+    }
+
+    /**
+     * Construct a {@link LoxTypeException} with the token that caused the
+     * exception and the formatter of its error message, which is only called
+     * if the message is used.
+     *
+     * @param token The token that caused the exception.
+     * @param message The formatter of the error message.
+     */
+    public LoxTypeException(Token token, Supplier<String> message) {
+        super(token, message);
+    }
+
+}
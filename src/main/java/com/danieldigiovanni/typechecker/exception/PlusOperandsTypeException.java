@@ -0,0 +1,33 @@
+package com.danieldigiovanni.typechecker.exception;
+
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+/**
+ * Type exception representing the case where a plus operation is certain to
+ * fail at runtime because its operands are neither both numbers nor both
+ * strings.
+ * <p>
+ * This is the compile-time counterpart of
+ * {@link com.danieldigiovanni.interpreter.exception.LoxPlusOperandsTypeRuntimeRuntimeException}.
+ */
+public class PlusOperandsTypeException extends BinaryOperandsTypeException {
+
+    /**
+     * Constructs a {@link PlusOperandsTypeException} with the token of the
+     * operator that caused the exception.
+     *
+     * @param token The operator token that caused the exception.
+     */
+    public PlusOperandsTypeException(Token token) {
+        super(
+            token,
+            () -> String.format(
+                "Binary %s operator: operands must be both numbers or both "
+                    + "strings",
+                TokenType.PLUS
+            )
+        );
+    }
+
+}
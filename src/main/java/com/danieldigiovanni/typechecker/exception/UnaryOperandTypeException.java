@@ -0,0 +1,30 @@
+package com.danieldigiovanni.typechecker.exception;
+
+import com.danieldigiovanni.token.Token;
+
+/**
+ * Type exception representing the case where a unary operation is certain to
+ * fail at runtime due to an incorrect operand type for the operator.
+ * <p>
+ * This is the compile-time counterpart of
+ * {@link com.danieldigiovanni.interpreter.exception.LoxUnaryOperandTypeRuntimeException}.
+ */
+public class UnaryOperandTypeException extends LoxTypeException {
+
+    /**
+     * Constructs a {@link UnaryOperandTypeException} with the token of the
+     * operator that caused the exception.
+     *
+     * @param token The operator token that caused the exception.
+     */
+    public UnaryOperandTypeException(Token token) {
+        super(
+            token,
+            () -> String.format(
+                "Unary %s operator: operand must be a number",
+                token.getType()
+            )
+        );
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.RecordingOutputSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    private final LoxOptions options = new LoxOptions();
+
+    private final RecordingOutputSink output = new RecordingOutputSink();
+
+    @Test
+    void writesTheOutputOfTheScriptsInTheirOrder() throws IOException {
+        this.options.setJobs(4);
+        List<String> scripts = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            // The first scripts take the longest to run
+            String script = this.script(i + ".lox", sum(1 << (16 - i)));
+            scripts.add(script);
+            expected.add("==> " + script + " <==");
+            expected.add(String.valueOf(1 << (16 - i)));
+        }
+
+        assertEquals(BatchRunner.EXIT_SUCCESS, new BatchRunner(this.options).run(scripts, this.output));
+        assertEquals(expected, this.output.getResults());
+    }
+
+    @Test
+    void reportsTheExitStatusOfEveryScript() throws IOException {
+        String ok = this.script("ok.lox", "1 + 2");
+        String error = this.script("error.lox", "1 + nil");
+        String missing = this.directory.resolve("missing.lox").toString();
+
+        int status = new BatchRunner(this.options).run(List.of(ok, error, missing), this.output);
+
+        assertEquals(BatchRunner.EXIT_IO_ERROR, status);
+        assertEquals(
+            List.of("==> " + ok + " <==", "3", "==> " + error + " <==", "==> " + missing + " <=="),
+            this.output.getResults()
+        );
+        List<String> diagnostics = this.output.getDiagnostics();
+        assertEquals(5, diagnostics.size());
+        assertEquals("==> " + ok + " <== exit status 0", diagnostics.get(0));
+        assertTrue(diagnostics.get(1).startsWith("[line 1] "));
+        assertEquals("==> " + error + " <== exit status 65", diagnostics.get(2));
+        assertTrue(diagnostics.get(3).startsWith("Could not read " + missing));
+        assertEquals("==> " + missing + " <== exit status 74", diagnostics.get(4));
+    }
+
+    @Test
+    void keepsRunningAfterAScriptTheInterpreterFailsOn() throws IOException {
+        String deep = this.script(
+            "deep.lox",
+            "(".repeat(1_000_000) + "1" + ")".repeat(1_000_000)
+        );
+        String ok = this.script("ok.lox", "1 + 2");
+
+        int status = new BatchRunner(this.options).run(List.of(deep, ok), this.output);
+
+        assertEquals(BatchRunner.EXIT_ERROR, status);
+        assertEquals(
+            List.of("==> " + deep + " <==", "==> " + ok + " <==", "3"),
+            this.output.getResults()
+        );
+        List<String> diagnostics = this.output.getDiagnostics();
+        assertTrue(diagnostics.get(0).startsWith("Could not run " + deep + ": "));
+        assertEquals("==> " + deep + " <== exit status 65", diagnostics.get(1));
+        assertEquals("==> " + ok + " <== exit status 0", diagnostics.get(2));
+    }
+
+    private String script(String name, String source) throws IOException {
+        return Files.writeString(this.directory.resolve(name), source).toString();
+    }
+
+    /**
+     * @return A balanced sum of ones, fully parenthesized.
+     */
+    private static String sum(int count) {
+        if (count == 1) {
+            return "1";
+        }
+        return "(" + sum(count / 2) + " + " + sum(count / 2) + ")";
+    }
+
+}
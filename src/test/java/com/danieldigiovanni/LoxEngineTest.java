@@ -0,0 +1,156 @@
+package com.danieldigiovanni;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoxEngineTest {
+
+    private final LoxEngine engine = new LoxEngine();
+
+    @Test
+    void runReturnsTheValueAndThePrintedResult() {
+        LoxResult result = this.engine.run("(1 + 2) * 3");
+
+        assertFalse(result.hasError());
+        assertEquals(9.0, result.getValue());
+        assertEquals(List.of("9"), result.getResults());
+        assertEquals(BatchRunner.EXIT_SUCCESS, result.getExitStatus());
+    }
+
+    @Test
+    void valuesAreJavaValues() {
+        assertEquals("ab", this.engine.run("\"a\" + \"b\"").getValue());
+        assertEquals(Boolean.TRUE, this.engine.run("1 < 2").getValue());
+        assertNull(this.engine.run("nil").getValue());
+    }
+
+    @Test
+    void variablesAreBound() {
+        LoxProgram program = this.engine.compile("x * 2 + y");
+
+        assertEquals(7.0, this.engine.run(program, Map.of("x", 2.0, "y", 3.0)).getValue());
+        assertEquals(1.0, this.engine.run(program, Map.of("x", -1.0, "y", 3.0)).getValue());
+    }
+
+    @Test
+    void boundNumbersAndStringsAreConverted() {
+        LoxProgram numbers = this.engine.compile("(x + y) * z");
+        LoxProgram strings = this.engine.compile("s + t");
+
+        assertEquals(
+            6.0,
+            this.engine.run(numbers, Map.of("x", 1, "y", 2L, "z", 2.0f)).getValue()
+        );
+        assertEquals(
+            "ab",
+            this.engine.run(strings, Map.of("s", "a", "t", new StringBuilder("b"))).getValue()
+        );
+    }
+
+    @Test
+    void booleansAndNilAreBound() {
+        Map<String, Object> bindings = new HashMap<>();
+        bindings.put("b", true);
+        bindings.put("n", null);
+
+        assertEquals(Boolean.TRUE, this.engine.run(this.engine.compile("n == nil and b"), bindings).getValue());
+    }
+
+    @Test
+    void otherBoundValuesAreRejected() {
+        LoxProgram program = this.engine.compile("x");
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.engine.run(program, Map.of("x", List.of()))
+        );
+    }
+
+    @Test
+    void lexerErrorsAreDiagnostics() {
+        LoxResult result = this.engine.run("1 + @");
+
+        assertTrue(result.hasError());
+        assertNull(result.getValue());
+        assertEquals(1, result.getDiagnostics().size());
+        assertTrue(result.getDiagnostics().get(0).startsWith("[line 1]"));
+        assertEquals(BatchRunner.EXIT_ERROR, result.getExitStatus());
+    }
+
+    @Test
+    void runtimeErrorsAreDiagnostics() {
+        LoxResult result = this.engine.run(
+            this.engine.compile("x - 1"),
+            Map.of("x", "a")
+        );
+
+        assertTrue(result.hasError());
+        assertTrue(result.getResults().isEmpty());
+        assertEquals(1, result.getDiagnostics().size());
+    }
+
+    @Test
+    void evaluationsPastTheBudgetFail() {
+        LoxEngine limited = new LoxEngine(2);
+        LoxProgram program = limited.compile("((x + x) + x) + x");
+
+        assertTrue(limited.run(program, Map.of("x", 1.0)).hasError());
+        assertFalse(limited.run("1 + 2").hasError());
+    }
+
+    @Test
+    void aSharedProgramRunsConcurrently() throws Exception {
+        StringBuilder source = new StringBuilder("s");
+        for (int i = 1; i < 32; i++) {
+            source.insert(0, "((").append(" + \",\") + s)");
+        }
+        LoxProgram concatenation = this.engine.compile(source.toString());
+        LoxProgram arithmetic = this.engine.compile("(x * 3 - 4) / 2 + x * y");
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int caller = i;
+                results.add(callers.submit(() -> {
+                    for (int run = 0; run < 500; run++) {
+                        double x = caller;
+                        double y = run;
+                        assertEquals(
+                            (x * 3 - 4) / 2 + x * y,
+                            this.engine.run(arithmetic, Map.of("x", x, "y", y)).getValue()
+                        );
+
+                        String s = caller + ":" + run;
+                        assertEquals(
+                            String.join(",", Collections.nCopies(32, s)),
+                            this.engine.run(concatenation, Map.of("s", s)).getValue()
+                        );
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                // Rethrows the assertion errors of the callers
+                result.get();
+            }
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+}
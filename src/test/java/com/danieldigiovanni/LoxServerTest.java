@@ -0,0 +1,168 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.RecordingOutputSink;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoxServerTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Path socket;
+
+    /**
+     * Starts one server shared by every test, since it serves until the JVM
+     * exits.
+     */
+    @BeforeAll
+    static void startServer() throws InterruptedException {
+        socket = directory.resolve("lox.sock");
+        LoxOptions options = new LoxOptions();
+        options.setJobs(2);
+        LoxServer server = new LoxServer(options, socket);
+
+        Thread thread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }, "lox-server-test");
+        thread.setDaemon(true);
+        thread.start();
+
+        // The socket file exists as soon as it is bound, before it is listened
+        // on, so the server is only known to be up once it served a request
+        for (int i = 0; ; i++) {
+            try {
+                new LoxClient(socket).run(bytes("nil"), new RecordingOutputSink());
+                return;
+            } catch (IOException exception) {
+                if (i == 500) {
+                    throw new UncheckedIOException(exception);
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    void streamsBackTheOutputAndTheExitStatusOfAScript() throws IOException {
+        RecordingOutputSink output = new RecordingOutputSink();
+
+        int status = new LoxClient(socket).run(bytes("\"a\" + \"!\""), output);
+
+        assertEquals(BatchRunner.EXIT_SUCCESS, status);
+        assertEquals(List.of("a!"), output.getResults());
+        assertEquals(List.of(), output.getDiagnostics());
+    }
+
+    @Test
+    void reportsTheErrorsOfAScript() throws IOException {
+        RecordingOutputSink output = new RecordingOutputSink();
+
+        int status = new LoxClient(socket).run(bytes("1 + nil"), output);
+
+        assertEquals(BatchRunner.EXIT_ERROR, status);
+        assertEquals(List.of(), output.getResults());
+        assertEquals(1, output.getDiagnostics().size());
+        assertTrue(output.getDiagnostics().get(0).startsWith("[line 1] "));
+    }
+
+    @Test
+    void writesEveryLineAsAFrameFollowedByTheExitStatus() throws IOException {
+        try (SocketChannel connection = this.connect()) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(connection));
+            byte[] script = bytes("1\n+ \"a\"");
+            out.writeInt(script.length);
+            out.write(script);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(Channels.newInputStream(connection));
+            assertEquals(LoxServer.DIAGNOSTIC, in.readByte());
+            byte[] line = new byte[in.readInt()];
+            in.readFully(line);
+            assertTrue(new String(line, StandardCharsets.UTF_8).startsWith("[line 2] "));
+            assertEquals(LoxServer.EXIT, in.readByte());
+            assertEquals(BatchRunner.EXIT_ERROR, in.readInt());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void closesTheConnectionOfAnInvalidRequest() throws IOException {
+        try (SocketChannel connection = this.connect()) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(connection));
+            out.writeInt(LoxServer.MAX_SCRIPT_SIZE + 1);
+            out.flush();
+
+            assertEquals(-1, Channels.newInputStream(connection).read());
+        }
+    }
+
+    @Test
+    void failsWhenTheServerCannotBeReached() {
+        Path missing = directory.resolve("missing.sock");
+
+        assertThrows(
+            IOException.class,
+            () -> new LoxClient(missing).run(bytes("1"), new RecordingOutputSink())
+        );
+    }
+
+    @Test
+    void servesClientsConcurrently() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String script = i + " * 2";
+                Callable<List<String>> client = () -> {
+                    RecordingOutputSink output = new RecordingOutputSink();
+                    new LoxClient(socket).run(bytes(script), output);
+                    return output.getResults();
+                };
+                results.add(clients.submit(client));
+            }
+            for (int i = 0; i < 16; i++) {
+                assertEquals(List.of(String.valueOf(i * 2)), results.get(i).get());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        SocketChannel connection = SocketChannel.open(StandardProtocolFamily.UNIX);
+        connection.connect(UnixDomainSocketAddress.of(socket));
+        return connection;
+    }
+
+    private static byte[] bytes(String source) {
+        return source.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
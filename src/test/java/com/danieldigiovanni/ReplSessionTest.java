@@ -0,0 +1,88 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.RecordingOutputSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplSessionTest {
+
+    private final RecordingOutputSink output = new RecordingOutputSink();
+
+    private final ReplSession session = new ReplSession(
+        new LoxRun(new LoxOptions(), this.output)
+    );
+
+    @Test
+    void runsEveryCompleteLine() {
+        this.session.read("1 + 2");
+        this.session.read("\"a\" + \"b\"");
+
+        assertEquals(List.of("3", "ab"), this.output.getResults());
+        assertEquals(ReplSession.PROMPT, this.session.prompt());
+    }
+
+    @Test
+    void continuesAnInputWhileItsParenthesesAreOpen() {
+        this.session.read("(1 +");
+        assertEquals(ReplSession.CONTINUATION_PROMPT, this.session.prompt());
+        this.session.read("(2 * 3)");
+        assertEquals(ReplSession.CONTINUATION_PROMPT, this.session.prompt());
+        this.session.read(")");
+
+        assertEquals(List.of("7"), this.output.getResults());
+        assertEquals(ReplSession.PROMPT, this.session.prompt());
+    }
+
+    @Test
+    void continuesAnInputWhileAStringIsOpen() {
+        this.session.read("\"a");
+        this.session.read("(b\"");
+
+        assertEquals(List.of("a\n(b"), this.output.getResults());
+        assertEquals(ReplSession.PROMPT, this.session.prompt());
+    }
+
+    @Test
+    void ignoresParenthesesInComments() {
+        this.session.read("1 // (");
+
+        assertEquals(List.of("1"), this.output.getResults());
+    }
+
+    @Test
+    void reportsErrorsOnTheLineOfTheInputTheyOccurOn() {
+        this.session.read("(1");
+        this.session.read("+ nil)");
+
+        assertEquals(List.of(), this.output.getResults());
+        assertEquals(
+            List.of("[line 2] Compilation Error: Binary PLUS operator: operands must be both numbers or both strings"),
+            this.output.getDiagnostics()
+        );
+    }
+
+    @Test
+    void runsAnIncompleteInputWhenTheInputEnds() {
+        this.session.read("(1 +");
+        this.session.finish();
+
+        assertEquals(List.of(), this.output.getResults());
+        assertEquals(1, this.output.getDiagnostics().size());
+        assertEquals(ReplSession.PROMPT, this.session.prompt());
+
+        this.session.read("2");
+        assertEquals(List.of("2"), this.output.getResults());
+    }
+
+    @Test
+    void runsARepeatedInputAgain() {
+        this.session.read("(1 +\n2)");
+        this.session.read("(1 +\n2)");
+
+        assertEquals(List.of("3", "3"), this.output.getResults());
+    }
+
+}
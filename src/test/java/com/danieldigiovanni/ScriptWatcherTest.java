@@ -0,0 +1,154 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.OutputSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScriptWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private Path script;
+
+    private final QueueOutputSink output = new QueueOutputSink();
+
+    private Thread watcher;
+
+    @BeforeEach
+    void startWatching() throws IOException {
+        this.script = this.directory.resolve("script.lox");
+        Files.createDirectory(this.directory.resolve("tmp"));
+        this.write("1 + 2");
+
+        this.watcher = new Thread(() -> {
+            try {
+                new ScriptWatcher(new LoxOptions()).watch(this.script, this.output);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }, "script-watcher-test");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    @AfterEach
+    void stopWatching() throws InterruptedException {
+        this.watcher.interrupt();
+        this.watcher.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(this.watcher.isAlive());
+    }
+
+    @Test
+    void runsTheScriptAgainWhenItChanges() throws Exception {
+        assertEquals("3", this.next());
+        assertTrue(this.next().startsWith("[watch] script.lox: read and parsed"));
+
+        this.write("2 + 2");
+        assertEquals("4", this.next());
+        assertTrue(this.next().startsWith("[watch] script.lox: read and parsed"));
+    }
+
+    @Test
+    void reusesTheTreeOfAVersionThatWasAlreadyRun() throws Exception {
+        assertEquals("3", this.next());
+        this.next();
+        this.write("2 + 2");
+        assertEquals("4", this.next());
+        this.next();
+
+        this.write("1 + 2");
+        assertEquals("3", this.next());
+        assertTrue(this.next().startsWith("[watch] script.lox: reused the parsed tree"));
+    }
+
+    @Test
+    void doesNotRunTheScriptWhenNothingChanged() throws Exception {
+        assertEquals("3", this.next());
+        this.next();
+
+        // Neither an unchanged script nor another file is run
+        this.write("1 + 2");
+        Files.writeString(this.directory.resolve("other.lox"), "5");
+        this.write("6");
+        assertEquals("6", this.next());
+    }
+
+    @Test
+    void reportsTheErrorsOfEveryRun() throws Exception {
+        assertEquals("3", this.next());
+        this.next();
+
+        this.write("1 + nil");
+        assertTrue(this.next().startsWith("[line 1] "));
+        assertTrue(this.next().endsWith(", with errors"));
+    }
+
+    /**
+     * Replaces the script atomically, so that the watcher never reads a
+     * partly written script.
+     */
+    private void write(String source) throws IOException {
+        Path temporary = Files.writeString(this.directory.resolve("tmp/script.lox"), source);
+        Files.move(
+            temporary,
+            this.script,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+    }
+
+    /**
+     * @return The next line of output, result or diagnostic.
+     */
+    private String next() throws InterruptedException {
+        String line = this.output.lines.poll(10, TimeUnit.SECONDS);
+        assertNotNull(line, "no output");
+        return line;
+    }
+
+    /**
+     * An output sink that queues every line written to it, from the thread of
+     * the watcher to the one of the test.
+     */
+    private static class QueueOutputSink implements OutputSink {
+
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+        @Override
+        public void result(CharSequence line) {
+            this.lines.add(line.toString());
+        }
+
+        @Override
+        public void diagnostic(CharSequence line) {
+            this.lines.add(line.toString());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.danieldigiovanni;
+
+import com.danieldigiovanni.output.RecordingOutputSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamRunnerTest {
+
+    private final LoxOptions options = new LoxOptions();
+
+    private final RecordingOutputSink output = new RecordingOutputSink();
+
+    @Test
+    void writesTheResultsInTheOrderOfTheInput() throws IOException {
+        this.options.setJobs(4);
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            input.append(i).append(" + 1\n");
+            expected.add(String.valueOf(i + 1));
+        }
+
+        assertEquals(BatchRunner.EXIT_SUCCESS, this.run(input.toString()));
+        assertEquals(expected, this.output.getResults());
+        assertEquals(List.of(), this.output.getDiagnostics());
+    }
+
+    @Test
+    void writesAResultForEveryLine() throws IOException {
+        int status = this.run("1 + 2\n\n1 + nil\r\n  \n\"a\" + \"b\"");
+
+        assertEquals(BatchRunner.EXIT_ERROR, status);
+        assertEquals(List.of("3", "", "", "", "ab"), this.output.getResults());
+    }
+
+    @Test
+    void doesNotWriteAResultForTheEndOfTheLastLine() throws IOException {
+        this.run("1\n2\n");
+
+        assertEquals(List.of("1", "2"), this.output.getResults());
+    }
+
+    @Test
+    void reportsErrorsOnTheirLineOfTheInput() throws IOException {
+        this.options.setJobs(4);
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 3_000; i++) {
+            input.append(i % 1_000 == 0 ? "1 + nil" : "").append('\n');
+        }
+
+        this.run(input.toString());
+
+        assertEquals(3_000, this.output.getResults().size());
+        List<String> diagnostics = this.output.getDiagnostics();
+        assertEquals(3, diagnostics.size());
+        assertTrue(diagnostics.get(0).startsWith("[line 1000] "));
+        assertTrue(diagnostics.get(1).startsWith("[line 2000] "));
+        assertTrue(diagnostics.get(2).startsWith("[line 3000] "));
+    }
+
+    @Test
+    void keepsRunningAfterALineTheInterpreterFailsOn() throws IOException {
+        String deep = "(".repeat(1_000_000) + "1" + ")".repeat(1_000_000);
+
+        int status = this.run("1\n" + deep + "\n2\n");
+
+        assertEquals(BatchRunner.EXIT_ERROR, status);
+        assertEquals(List.of("1", "", "2"), this.output.getResults());
+        assertEquals(1, this.output.getDiagnostics().size());
+        assertTrue(this.output.getDiagnostics().get(0).startsWith("[line 2] Internal Error: "));
+    }
+
+    private int run(String input) throws IOException {
+        return new StreamRunner(this.options).run(new StringReader(input), this.output);
+    }
+
+}
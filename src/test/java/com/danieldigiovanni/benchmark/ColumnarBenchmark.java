@@ -0,0 +1,113 @@
+package com.danieldigiovanni.benchmark;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.BatchInterpreter;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.interpreter.batch.ColumnBatch;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of a formula applied to every row of a dataset, evaluated row by
+ * row with an {@link Interpreter} and over the whole dataset at once with a
+ * {@link BatchInterpreter}.
+ * <p>
+ * Usage: {@code ColumnarBenchmark [rows]}
+ */
+public class ColumnarBenchmark {
+
+    /**
+     * The formula applied to every row.
+     */
+    private static final String FORMULA =
+        "price * quantity * (1 - discount) > 100 and region == \"north\"";
+
+    /**
+     * The regions the rows are spread over.
+     */
+    private static final String[] REGIONS = { "north", "south", "east", "west" };
+
+    /**
+     * The number of times each evaluator is run before being measured.
+     */
+    private static final int WARMUP_ITERATIONS = 10;
+
+    /**
+     * The number of times each evaluator is run while being measured.
+     */
+    private static final int MEASURED_ITERATIONS = 10;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Random random = new Random(0);
+        double[] prices = new double[rows];
+        double[] quantities = new double[rows];
+        double[] discounts = new double[rows];
+        String[] regions = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            prices[row] = random.nextInt(10_000) / 100.0;
+            quantities[row] = random.nextInt(10);
+            discounts[row] = random.nextInt(50) / 100.0;
+            regions[row] = REGIONS[random.nextInt(REGIONS.length)];
+        }
+
+        Expr expr = new Parser(new Lexer(FORMULA).lexAllTokens()).parse();
+        ColumnBatch batch = new ColumnBatch(rows)
+            .bind("price", prices)
+            .bind("quantity", quantities)
+            .bind("discount", discounts)
+            .bind("region", regions);
+
+        System.out.printf("%,d rows: %s%n", rows, FORMULA);
+
+        long perRow = measure(() -> {
+            Map<String, Object> bindings = new HashMap<>();
+            for (int row = 0; row < rows; row++) {
+                bindings.put("price", prices[row]);
+                bindings.put("quantity", quantities[row]);
+                bindings.put("discount", discounts[row]);
+                bindings.put("region", regions[row]);
+                expr.accept(new Interpreter(bindings));
+            }
+        });
+        print("row by row", perRow, rows);
+
+        BatchInterpreter interpreter = new BatchInterpreter();
+        long columnar = measure(() -> interpreter.evaluate(expr, batch));
+        print("columnar", columnar, rows);
+    }
+
+    /**
+     * Measures a run over the whole dataset.
+     *
+     * @param run The run to be measured.
+     *
+     * @return The average time of a run, in nanoseconds.
+     */
+    private static long measure(Runnable run) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run.run();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            run.run();
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static void print(String name, long elapsed, int rows) {
+        System.out.printf(
+            "%12s: %,14d ns per run, %,8.1f ns per row%n",
+            name,
+            elapsed,
+            (double) elapsed / rows
+        );
+    }
+
+}
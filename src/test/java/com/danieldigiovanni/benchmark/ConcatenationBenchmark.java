@@ -0,0 +1,121 @@
+package com.danieldigiovanni.benchmark;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+import java.util.Arrays;
+
+/**
+ * Benchmark of long chains of string concatenations, like the ones generated
+ * by templating tools.
+ * <p>
+ * A chain of {@code N} concatenations {@code (((s + s) + s) + ... + s)} is
+ * built directly as an abstract syntax tree, evaluated and flattened (as it
+ * would be when printed). With lazy concatenation, the time per piece should
+ * stay roughly constant as {@code N} grows.
+ * <p>
+ * Usage: {@code ConcatenationBenchmark [pieces...]}
+ */
+public class ConcatenationBenchmark {
+
+    /**
+     * The string literal concatenated at every step of the chain.
+     */
+    private static final String PIECE = "<td>{{value}}</td>";
+
+    /**
+     * The number of times each chain is evaluated before being measured.
+     */
+    private static final int WARMUP_ITERATIONS = 5;
+
+    /**
+     * The number of times each chain is evaluated while being measured.
+     */
+    private static final int MEASURED_ITERATIONS = 5;
+
+    /**
+     * The stack size of the benchmark thread, large enough to evaluate
+     * deeply nested expressions recursively.
+     */
+    private static final long STACK_SIZE = 1L << 30;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] chainLengths = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[] { 1_000, 10_000, 100_000 };
+
+        Thread thread = new Thread(
+            null,
+            () -> {
+                for (int chainLength : chainLengths) {
+                    run(chainLength);
+                }
+            },
+            "concatenation-benchmark",
+            STACK_SIZE
+        );
+        thread.start();
+        thread.join();
+    }
+
+    /**
+     * Measures the evaluation of a chain of concatenations.
+     *
+     * @param chainLength The number of pieces in the chain.
+     */
+    private static void run(int chainLength) {
+        Expr expr = chain(chainLength);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            evaluate(expr);
+        }
+
+        long start = System.nanoTime();
+        long length = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            length += evaluate(expr);
+        }
+        long elapsed = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        System.out.printf(
+            "%,10d pieces: %,12d ns per evaluation, %,8.1f ns per piece "
+                + "(%,d characters)%n",
+            chainLength,
+            elapsed,
+            (double) elapsed / chainLength,
+            length / MEASURED_ITERATIONS
+        );
+    }
+
+    /**
+     * Evaluates an expression and flattens its result.
+     *
+     * @param expr The expression to be evaluated.
+     *
+     * @return The length of the flattened result.
+     */
+    private static int evaluate(Expr expr) {
+        return expr.accept(new Interpreter()).toString().length();
+    }
+
+    /**
+     * Builds a left-leaning chain of concatenations.
+     *
+     * @param chainLength The number of pieces in the chain.
+     *
+     * @return The chain of concatenations.
+     */
+    private static Expr chain(int chainLength) {
+        Token plus = new Token(TokenType.PLUS, "+", null, 1);
+        Expr expr = new Literal(PIECE);
+        for (int i = 1; i < chainLength; i++) {
+            expr = new Binary(expr, plus, new Literal(PIECE));
+        }
+        return expr;
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.danieldigiovanni.benchmark;
+
+import com.danieldigiovanni.LoxEngine;
+import com.danieldigiovanni.LoxProgram;
+import com.danieldigiovanni.LoxResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test and benchmark of a {@link LoxEngine} called by many threads at
+ * the same time.
+ * <p>
+ * Every caller is a thread of its own, all of them released at once. Each
+ * caller runs two programs compiled once and shared by all of them, with
+ * values of its own bound to their variables so that nothing can be folded
+ * at compile time: an arithmetic expression, and a long concatenation of
+ * strings. It also compiles and runs a program of its own, and checks every
+ * result. The number of wrong results must be zero.
+ * <p>
+ * The callers are platform threads, since virtual threads are not available
+ * on the JDK targeted. The engine holds no locks and no thread-local state,
+ * so it runs the same on virtual threads.
+ * <p>
+ * Usage: {@code EngineConcurrencyBenchmark [callers] [runs per caller]}
+ */
+public class EngineConcurrencyBenchmark {
+
+    private static final String ARITHMETIC_SOURCE = "(x * 3 - 4) / 2 + x * y";
+
+    /**
+     * The number of times {@code s} is repeated by {@link #CONCATENATION_SOURCE}.
+     */
+    private static final int REPETITIONS = 64;
+
+    /**
+     * {@code s} repeated and separated by commas. Every concatenation is
+     * parenthesised, since the parser keeps only the first and the last
+     * operands of a longer chain.
+     */
+    private static final String CONCATENATION_SOURCE = concatenation();
+
+    public static void main(String[] args) throws InterruptedException {
+        int callers = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        LoxEngine engine = new LoxEngine();
+        LoxProgram arithmetic = engine.compile(ARITHMETIC_SOURCE);
+        LoxProgram concatenation = engine.compile(CONCATENATION_SOURCE);
+        AtomicInteger wrong = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            int caller = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int run = 0; run < runs; run++) {
+                    double x = caller;
+                    double y = run;
+                    check(
+                        engine.run(arithmetic, Map.of("x", x, "y", y)),
+                        (x * 3 - 4) / 2 + x * y,
+                        wrong
+                    );
+                    String s = "caller " + caller + " run " + run;
+                    check(
+                        engine.run(concatenation, Map.of("s", s)),
+                        String.join(",", Collections.nCopies(REPETITIONS, s)),
+                        wrong
+                    );
+                    check(
+                        engine.run(caller + " * 2 + " + run),
+                        (double) (caller * 2 + run),
+                        wrong
+                    );
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long calls = 3L * callers * runs;
+        System.out.printf(
+            "%,d callers, %,d calls in %,d ms, %,.0f calls per second, %,d wrong results%n",
+            callers,
+            calls,
+            elapsed / 1_000_000,
+            calls * 1e9 / elapsed,
+            wrong.get()
+        );
+        if (wrong.get() != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String concatenation() {
+        StringBuilder source = new StringBuilder("s");
+        for (int i = 1; i < REPETITIONS; i++) {
+            source.insert(0, "((").append(" + \",\") + s)");
+        }
+        return source.toString();
+    }
+
+    private static void check(LoxResult result, Object expected, AtomicInteger wrong) {
+        if (result.hasError() || !expected.equals(result.getValue())) {
+            wrong.incrementAndGet();
+        }
+    }
+
+}
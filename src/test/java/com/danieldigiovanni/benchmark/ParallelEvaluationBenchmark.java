@@ -0,0 +1,134 @@
+package com.danieldigiovanni.benchmark;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.interpreter.ParallelInterpreter;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.token.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Benchmark of the parallel evaluation of a large balanced expression tree
+ * across core counts.
+ * <p>
+ * A balanced tree of additions and subtractions is built directly as an
+ * abstract syntax tree, and evaluated by a sequential {@link Interpreter} and
+ * by a {@link ParallelInterpreter} with pools of 1, 2, 4, ... threads, up to
+ * the number of available processors. The speedup of each run is relative to
+ * the sequential one.
+ * <p>
+ * Usage: {@code ParallelEvaluationBenchmark [leaves] [threshold]}
+ */
+public class ParallelEvaluationBenchmark {
+
+    /**
+     * The number of times each evaluator is run before being measured.
+     */
+    private static final int WARMUP_ITERATIONS = 20;
+
+    /**
+     * The number of times each evaluator is run while being measured.
+     */
+    private static final int MEASURED_ITERATIONS = 10;
+
+    public static void main(String[] args) {
+        int leaves = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int threshold = args.length > 1
+            ? Integer.parseInt(args[1])
+            : ParallelInterpreter.DEFAULT_THRESHOLD;
+
+        Expr expr = tree(leaves, 0);
+        System.out.printf(
+            "%,d leaves, threshold of %,d nodes%n",
+            leaves,
+            threshold
+        );
+
+        long sequential = measure(expr, e -> e.accept(new Interpreter()));
+        print("sequential", sequential, sequential);
+
+        for (int parallelism : parallelisms()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            ParallelInterpreter interpreter = new ParallelInterpreter(
+                pool,
+                threshold
+            );
+            long elapsed = measure(expr, interpreter::evaluate);
+            pool.shutdown();
+            print(parallelism + " threads", elapsed, sequential);
+        }
+    }
+
+    /**
+     * @return The pool sizes to be measured: the powers of two below the
+     *         number of available processors, and that number itself.
+     */
+    private static List<Integer> parallelisms() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> parallelisms = new ArrayList<>();
+        for (int parallelism = 1; parallelism < processors; parallelism *= 2) {
+            parallelisms.add(parallelism);
+        }
+        parallelisms.add(processors);
+        return parallelisms;
+    }
+
+    /**
+     * Measures the evaluation of an expression.
+     *
+     * @param expr The expression to be evaluated.
+     * @param evaluator The evaluator of the expression.
+     *
+     * @return The average time of an evaluation, in nanoseconds.
+     */
+    private static long measure(Expr expr, Function<Expr, Object> evaluator) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            evaluator.apply(expr);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            evaluator.apply(expr);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static void print(String name, long elapsed, long sequential) {
+        System.out.printf(
+            "%12s: %,14d ns per evaluation, %5.2fx speedup%n",
+            name,
+            elapsed,
+            (double) sequential / elapsed
+        );
+    }
+
+    /**
+     * Builds a balanced tree of additions and subtractions.
+     *
+     * @param leaves The number of leaves of the tree.
+     * @param depth The depth of the root of the tree, used to alternate the
+     *              operators.
+     *
+     * @return The balanced tree.
+     */
+    private static Expr tree(int leaves, int depth) {
+        if (leaves == 1) {
+            return new Literal((double) (depth % 10));
+        }
+        Token operator = depth % 2 == 0
+            ? new Token(TokenType.PLUS, "+", null, 1)
+            : new Token(TokenType.MINUS, "-", null, 1);
+        return new Binary(
+            tree(leaves / 2, depth + 1),
+            operator,
+            tree(leaves - leaves / 2, depth + 1)
+        );
+    }
+
+}
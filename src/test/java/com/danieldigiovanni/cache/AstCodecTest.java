@@ -0,0 +1,141 @@
+package com.danieldigiovanni.cache;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.interpreter.EvaluationLimits;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import com.danieldigiovanni.token.Token;
+import com.danieldigiovanni.typechecker.TypeChecker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AstCodecTest {
+
+    @Test
+    void decodesTheTreeThatWasEncoded() {
+        String[] sources = {
+            "(1 + 2.5) * (-3 / 1000000)",
+            "(\"a\" + \"é\") == (\"a\" + \"\")",
+            "(true and nil) or !false",
+            "(x < 0.1) or\n(y >= 2147483647)",
+            "((((1))))",
+        };
+
+        for (String source : sources) {
+            Expr expr = parse(source);
+            assertSameTree(expr, roundTrip(expr), source);
+        }
+    }
+
+    @Test
+    void keepsTheStaticTypes() {
+        Expr expr = new TypeChecker().check(parse("(1 + 2) < (x * 3)"));
+
+        assertSameTree(expr, roundTrip(expr), "typed tree");
+    }
+
+    @Test
+    void decodesATreeThatEvaluatesLikeTheOriginal() {
+        Expr expr = parse("((x * 0.5) - -1) + ((\"a\" == \"a\") and 42)");
+        Expr decoded = roundTrip(expr);
+        Map<String, Object> bindings = Map.of("x", 3.0);
+
+        assertEquals(
+            Interpreter.stringify(new Interpreter(bindings, EvaluationLimits.NONE).evaluate(expr)),
+            Interpreter.stringify(new Interpreter(bindings, EvaluationLimits.NONE).evaluate(decoded))
+        );
+    }
+
+    @Test
+    void doesNotDecodeTruncatedOrCorruptedTrees() {
+        byte[] encoded = AstCodec.encode(parse("(1 + \"a\") * x"));
+
+        for (int length = 0; length < encoded.length; length++) {
+            assertNull(
+                AstCodec.decode(ByteBuffer.wrap(Arrays.copyOf(encoded, length))),
+                "truncated to " + length
+            );
+        }
+
+        byte[] trailing = Arrays.copyOf(encoded, encoded.length + 1);
+        assertNull(AstCodec.decode(ByteBuffer.wrap(trailing)));
+
+        byte[] otherMagic = encoded.clone();
+        otherMagic[0] = 'X';
+        assertNull(AstCodec.decode(ByteBuffer.wrap(otherMagic)));
+
+        byte[] otherVersion = encoded.clone();
+        otherVersion[4] = AstCodec.VERSION + 1;
+        assertNull(AstCodec.decode(ByteBuffer.wrap(otherVersion)));
+    }
+
+    private static Expr roundTrip(Expr expr) {
+        Expr decoded = AstCodec.decode(ByteBuffer.wrap(AstCodec.encode(expr)));
+        assertNotNull(decoded);
+        return decoded;
+    }
+
+    /**
+     * Asserts that two trees have the same nodes, static types, tokens and
+     * literals.
+     */
+    private static void assertSameTree(Expr expected, Expr actual, String message) {
+        assertEquals(expected.getClass(), actual.getClass(), message);
+        assertEquals(expected.getStaticType(), actual.getStaticType(), message);
+
+        if (expected instanceof Binary binary) {
+            Binary other = (Binary) actual;
+            assertSameToken(binary.getOperator(), other.getOperator(), message);
+            assertSameTree(binary.getLeft(), other.getLeft(), message);
+            assertSameTree(binary.getRight(), other.getRight(), message);
+        } else if (expected instanceof Logical logical) {
+            Logical other = (Logical) actual;
+            assertSameToken(logical.getOperator(), other.getOperator(), message);
+            assertSameTree(logical.getLeft(), other.getLeft(), message);
+            assertSameTree(logical.getRight(), other.getRight(), message);
+        } else if (expected instanceof Unary unary) {
+            Unary other = (Unary) actual;
+            assertSameToken(unary.getOperator(), other.getOperator(), message);
+            assertSameTree(unary.getRight(), other.getRight(), message);
+        } else if (expected instanceof Grouping grouping) {
+            assertSameTree(grouping.getExpr(), ((Grouping) actual).getExpr(), message);
+        } else if (expected instanceof Variable variable) {
+            assertSameToken(variable.getName(), ((Variable) actual).getName(), message);
+        } else {
+            Object value = ((Literal) expected).getValue();
+            Object other = ((Literal) actual).getValue();
+            if (value instanceof CharSequence) {
+                assertInstanceOf(CharSequence.class, other, message);
+                assertEquals(value.toString(), other.toString(), message);
+            } else {
+                assertEquals(value, other, message);
+            }
+        }
+    }
+
+    private static void assertSameToken(Token expected, Token actual, String message) {
+        assertEquals(expected.getType(), actual.getType(), message);
+        assertEquals(expected.getLexeme().toString(), actual.getLexeme().toString(), message);
+        assertEquals(expected.getLineNumber(), actual.getLineNumber(), message);
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
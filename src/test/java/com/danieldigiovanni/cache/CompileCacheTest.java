@@ -0,0 +1,102 @@
+package com.danieldigiovanni.cache;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.visitor.AstPrinterVisitor;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompileCacheTest {
+
+    private static final String SOURCE = "(1 + \"a\") * -x";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsTheTreeStoredForTheSameSource() {
+        CompileCache cache = new CompileCache(this.directory.resolve("cache"));
+        Expr expr = parse(SOURCE);
+
+        assertNull(cache.load(bytes(SOURCE)));
+        cache.store(bytes(SOURCE), expr);
+
+        Expr loaded = new CompileCache(this.directory.resolve("cache")).load(bytes(SOURCE));
+        assertNotNull(loaded);
+        assertEquals(print(expr), print(loaded));
+    }
+
+    @Test
+    void missesForAnotherSource() {
+        CompileCache cache = new CompileCache(this.directory);
+        cache.store(bytes(SOURCE), parse(SOURCE));
+
+        assertNull(cache.load(bytes(SOURCE + " ")));
+    }
+
+    @Test
+    void replacesTheTreeStoredForASource() {
+        CompileCache cache = new CompileCache(this.directory);
+        cache.store(bytes(SOURCE), parse("1"));
+        cache.store(bytes(SOURCE), parse(SOURCE));
+
+        assertEquals(print(parse(SOURCE)), print(cache.load(bytes(SOURCE))));
+        assertEquals(1, files().size());
+    }
+
+    @Test
+    void missesWhenTheFileIsCorrupted() throws IOException {
+        CompileCache cache = new CompileCache(this.directory);
+        cache.store(bytes(SOURCE), parse(SOURCE));
+        Path file = files().get(0);
+
+        byte[] encoded = Files.readAllBytes(file);
+        Files.write(file, new byte[] { encoded[0], encoded[1] });
+        assertNull(cache.load(bytes(SOURCE)));
+
+        Files.write(file, new byte[0]);
+        assertNull(cache.load(bytes(SOURCE)));
+    }
+
+    @Test
+    void doesNotFailWhenTheDirectoryCannotBeCreated() throws IOException {
+        Path notADirectory = Files.createFile(this.directory.resolve("file"));
+        CompileCache cache = new CompileCache(notADirectory.resolve("cache"));
+
+        cache.store(bytes(SOURCE), parse(SOURCE));
+        assertNull(cache.load(bytes(SOURCE)));
+    }
+
+    private List<Path> files() {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.toList();
+        } catch (IOException exception) {
+            throw new AssertionError(exception);
+        }
+    }
+
+    private static byte[] bytes(String source) {
+        return source.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String print(Expr expr) {
+        return new AstPrinterVisitor().print(expr);
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.batch.Column;
+import com.danieldigiovanni.interpreter.batch.ColumnBatch;
+import com.danieldigiovanni.interpreter.batch.NumberColumn;
+import com.danieldigiovanni.interpreter.exception.LoxBatchRowRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUndefinedVariableRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchInterpreterTest {
+
+    private static final double[] NUMBERS = { 0, 1.5, -2, 3, 1e7, 2 };
+
+    private static final String[] STRINGS = { "a", "", null, "bc", "a", "d" };
+
+    @Test
+    void evaluatesNumericOperationsIntoAColumnOfNumbers() {
+        Column result = evaluate("(x * 2) - (x / 2)");
+
+        assertInstanceOf(NumberColumn.class, result);
+        for (int row = 0; row < NUMBERS.length; row++) {
+            assertEquals(NUMBERS[row] * 2 - NUMBERS[row] / 2, result.get(row));
+        }
+    }
+
+    @Test
+    void evaluatesEveryRowLikeTheInterpreter() {
+        String source = "(s == \"a\") or ((x > 1) and (s + \"!\"))";
+        Column result = evaluate(source);
+
+        for (int row = 0; row < NUMBERS.length; row++) {
+            assertEquals(
+                Interpreter.stringify(interpret(source, row)),
+                Interpreter.stringify(result.get(row)),
+                "row " + row
+            );
+        }
+    }
+
+    @Test
+    void onlyEvaluatesTheRightOperandOfLogicalOperatorsWhenNeeded() {
+        // The right operand would fail for row 2, which has a nil string
+        Column result = evaluate("(s == nil) or (s + \"!\")");
+
+        assertEquals(true, result.get(2));
+        assertEquals("bc!", result.get(3).toString());
+    }
+
+    @Test
+    void reportsTheErrorOfTheFirstRowThatFailed() {
+        // Row 2 has a nil string
+        LoxBatchRowRuntimeException exception = assertThrows(
+            LoxBatchRowRuntimeException.class,
+            () -> evaluate("s + \"!\"")
+        );
+
+        assertEquals(2, exception.getRow());
+        assertEquals(
+            "Binary PLUS operator: operands must be both numbers or both strings",
+            exception.getMessage()
+        );
+    }
+
+    @Test
+    void reportsTheErrorEachRowWouldHaveFailedWithAlone() {
+        // Row 2 fails on the left operand, every other row on the right one
+        String source = "(s + \"!\") - (x < \"a\")";
+        LoxBatchRowRuntimeException exception = assertThrows(
+            LoxBatchRowRuntimeException.class,
+            () -> evaluate(source)
+        );
+
+        assertEquals(0, exception.getRow());
+        assertEquals(
+            "Binary LESS operator: operands must be both numbers",
+            exception.getMessage()
+        );
+        assertEquals(
+            assertThrows(LoxRuntimeException.class, () -> interpret(source, 0)).getMessage(),
+            exception.getMessage()
+        );
+    }
+
+    @Test
+    void reportsUndefinedVariables() {
+        LoxBatchRowRuntimeException exception = assertThrows(
+            LoxBatchRowRuntimeException.class,
+            () -> evaluate("x + y")
+        );
+
+        assertInstanceOf(LoxUndefinedVariableRuntimeException.class, exception.getCause());
+    }
+
+    @Test
+    void rejectsColumnsOfTheWrongSize() {
+        ColumnBatch batch = new ColumnBatch(2);
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> batch.bind("x", new double[3])
+        );
+    }
+
+    @Test
+    void agreesWithTheInterpreterOnRandomExpressions() {
+        String[] operands = { "x", "s", "1", "\"a\"", "nil", "true" };
+        String[] operators = { "+", "-", "*", "/", "==", "<", "and", "or" };
+        Random random = new Random(37);
+
+        for (int i = 0; i < 2_000; i++) {
+            String source = generate(random, 4, operands, operators);
+            LoxRuntimeException firstError = null;
+            int firstFailingRow = -1;
+            for (int row = 0; row < NUMBERS.length && firstError == null; row++) {
+                try {
+                    interpret(source, row);
+                } catch (LoxRuntimeException exception) {
+                    firstError = exception;
+                    firstFailingRow = row;
+                }
+            }
+
+            if (firstError == null) {
+                Column result = evaluate(source);
+                for (int row = 0; row < NUMBERS.length; row++) {
+                    assertEquals(
+                        Interpreter.stringify(interpret(source, row)),
+                        Interpreter.stringify(result.get(row)),
+                        source + ", row " + row
+                    );
+                }
+            } else {
+                LoxBatchRowRuntimeException exception = assertThrows(
+                    LoxBatchRowRuntimeException.class,
+                    () -> evaluate(source),
+                    source
+                );
+                assertEquals(firstFailingRow, exception.getRow(), source);
+                assertEquals(firstError.getMessage(), exception.getMessage(), source);
+            }
+        }
+    }
+
+    private static String generate(Random random, int depth, String[] operands, String[] operators) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return operands[random.nextInt(operands.length)];
+        }
+        if (random.nextInt(5) == 0) {
+            return (random.nextBoolean() ? "-" : "!") + generate(random, depth - 1, operands, operators);
+        }
+        return "(" + generate(random, depth - 1, operands, operators)
+            + " " + operators[random.nextInt(operators.length)]
+            + " " + generate(random, depth - 1, operands, operators) + ")";
+    }
+
+    private static Column evaluate(String source) {
+        ColumnBatch batch = new ColumnBatch(NUMBERS.length)
+            .bind("x", NUMBERS)
+            .bind("s", STRINGS);
+        return new BatchInterpreter().evaluate(parse(source), batch);
+    }
+
+    private static Object interpret(String source, int row) {
+        Map<String, Object> bindings = new HashMap<>();
+        bindings.put("x", NUMBERS[row]);
+        bindings.put("s", STRINGS[row]);
+        return new Interpreter(bindings, EvaluationLimits.NONE).evaluate(parse(source));
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
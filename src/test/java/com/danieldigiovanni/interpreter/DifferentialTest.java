@@ -0,0 +1,267 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Binary;
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Grouping;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.expr.Logical;
+import com.danieldigiovanni.expr.Unary;
+import com.danieldigiovanni.expr.Variable;
+import com.danieldigiovanni.expr.visitor.Visitor;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.optimizer.PassManager;
+import com.danieldigiovanni.output.RecordingOutputSink;
+import com.danieldigiovanni.parser.Parser;
+import com.danieldigiovanni.parser.exception.LoxParseException;
+import com.danieldigiovanni.token.TokenType;
+import com.danieldigiovanni.typechecker.TypeChecker;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Evaluates random expressions on every evaluation path, and checks that they
+ * all print the same result, or fail with the same error message, as a
+ * reference evaluator.
+ * <p>
+ * The expressions are generated from a fixed seed, so a failure is
+ * reproduced by running the test again.
+ */
+class DifferentialTest {
+
+    private static final long SEED = 20_241_019L;
+
+    private static final int EXPRESSIONS = 20_000;
+
+    private static final int MAX_DEPTH = 6;
+
+    private static final String[] LITERALS = {
+        "0", "1", "2", "3", "0.5", "1.5", "1000000", "4294967296",
+        "9007199254740992", "0.1", "\"a\"", "\"bc\"", "\"\"", "true",
+        "false", "nil",
+    };
+
+    private static final String[] BINARY_OPERATORS = {
+        "+", "-", "*", "/", "==", "!=", "<", "<=", ">", ">=", "and", "or",
+    };
+
+    @Test
+    void everyEvaluatorAgreesWithTheReference() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        MemoizingInterpreter memoizingInterpreter = new MemoizingInterpreter(1_000);
+        ParallelInterpreter parallelInterpreter = new ParallelInterpreter(pool, 4);
+
+        Map<String, Function<Expr, String>> evaluators = new LinkedHashMap<>();
+        evaluators.put(
+            "visitor",
+            expr -> Interpreter.stringify(new Interpreter().evaluate(expr))
+        );
+        evaluators.put("unboxed", expr -> {
+            RecordingOutputSink sink = new RecordingOutputSink();
+            new Interpreter().interpret(expr, sink);
+            return sink.getResults().get(0);
+        });
+        evaluators.put(
+            "checked",
+            expr -> Interpreter.stringify(
+                new Interpreter().evaluate(new TypeChecker().check(expr))
+            )
+        );
+        evaluators.put(
+            "optimized",
+            expr -> Interpreter.stringify(new Interpreter().evaluate(
+                new TypeChecker().check(PassManager.defaultPipeline().optimize(expr))
+            ))
+        );
+        evaluators.put(
+            "memoizing",
+            expr -> Interpreter.stringify(memoizingInterpreter.evaluate(expr))
+        );
+        evaluators.put(
+            "parallel",
+            expr -> Interpreter.stringify(parallelInterpreter.evaluate(expr))
+        );
+
+        Random random = new Random(SEED);
+        try {
+            for (int i = 0; i < EXPRESSIONS; i++) {
+                String source = generate(random, MAX_DEPTH);
+                Expr expr = new Parser(new Lexer(source).lexAllTokens()).parse();
+                String expected = Reference.print(expr);
+                for (Map.Entry<String, Function<Expr, String>> evaluator : evaluators.entrySet()) {
+                    assertEquals(
+                        expected,
+                        print(evaluator.getValue(), expr),
+                        () -> evaluator.getKey() + " evaluator, expression " + source
+                    );
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String print(Function<Expr, String> evaluator, Expr expr) {
+        try {
+            return evaluator.apply(expr);
+        } catch (LoxParseException | LoxRuntimeException exception) {
+            return "error: " + exception.getMessage();
+        }
+    }
+
+    private static String generate(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return LITERALS[random.nextInt(LITERALS.length)];
+        }
+        return switch (random.nextInt(4)) {
+            case 0 -> (random.nextBoolean() ? "-" : "!") + generate(random, depth - 1);
+            case 1 -> "(" + generate(random, depth - 1) + ")";
+            default -> "(" + generate(random, depth - 1)
+                + " " + BINARY_OPERATORS[random.nextInt(BINARY_OPERATORS.length)]
+                + " " + generate(random, depth - 1) + ")";
+        };
+    }
+
+    /**
+     * A straightforward evaluator, with no fast paths, no caching and no
+     * optimizations, which formats its results the way the original
+     * interpreter did.
+     */
+    private static class Reference implements Visitor<Object> {
+
+        /**
+         * Evaluates an expression and prints its result, or the message of
+         * the error it fails with.
+         */
+        static String print(Expr expr) {
+            Object result = expr.accept(new Reference());
+            if (result instanceof Failure failure) {
+                return "error: " + failure.message();
+            }
+            if (result == null) {
+                return "nil";
+            }
+            String text = result.toString();
+            if (result instanceof Double && text.endsWith(".0")) {
+                text = text.substring(0, text.length() - 2);
+            }
+            return text;
+        }
+
+        @Override
+        public Object visit(Binary expr) {
+            Object left = expr.getLeft().accept(this);
+            if (left instanceof Failure) {
+                return left;
+            }
+            Object right = expr.getRight().accept(this);
+            if (right instanceof Failure) {
+                return right;
+            }
+
+            TokenType operator = expr.getOperator().getType();
+            switch (operator) {
+                case EQUAL_EQUAL:
+                    return equal(left, right);
+                case BANG_EQUAL:
+                    return !equal(left, right);
+                case PLUS:
+                    if (left instanceof CharSequence a && right instanceof CharSequence b) {
+                        return a.toString() + b;
+                    }
+                    if (!(left instanceof Double) || !(right instanceof Double)) {
+                        return new Failure(
+                            "Binary PLUS operator: operands must be both numbers "
+                                + "or both strings"
+                        );
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (!(left instanceof Double a) || !(right instanceof Double b)) {
+                return new Failure(
+                    "Binary " + operator + " operator: operands must be both numbers"
+                );
+            }
+            return switch (operator) {
+                case PLUS -> a + b;
+                case MINUS -> a - b;
+                case STAR -> a * b;
+                case SLASH -> a / b;
+                case GREATER -> a > b;
+                case GREATER_EQUAL -> a >= b;
+                case LESS -> a < b;
+                case LESS_EQUAL -> a <= b;
+                default -> throw new IllegalStateException(operator.toString());
+            };
+        }
+
+        @Override
+        public Object visit(Grouping expr) {
+            return expr.getExpr().accept(this);
+        }
+
+        @Override
+        public Object visit(Unary expr) {
+            Object right = expr.getRight().accept(this);
+            if (right instanceof Failure) {
+                return right;
+            }
+            return switch (expr.getOperator().getType()) {
+                // What the interpreter has always done, see OperatorTable
+                case BANG -> truthy(right);
+                case MINUS -> right instanceof Double number
+                    ? Double.valueOf(-number)
+                    : new Failure("Unary MINUS operator: operand must be a number");
+                default -> throw new IllegalStateException(expr.getOperator().toString());
+            };
+        }
+
+        @Override
+        public Object visit(Literal expr) {
+            return expr.getValue();
+        }
+
+        @Override
+        public Object visit(Logical expr) {
+            Object left = expr.getLeft().accept(this);
+            if (left instanceof Failure) {
+                return left;
+            }
+            boolean or = expr.getOperator().getType() == TokenType.OR;
+            return truthy(left) == or ? left : expr.getRight().accept(this);
+        }
+
+        @Override
+        public Object visit(Variable expr) {
+            throw new IllegalStateException("No variables are generated");
+        }
+
+        private static boolean truthy(Object value) {
+            return value instanceof Boolean bool ? bool : value != null;
+        }
+
+        private static boolean equal(Object a, Object b) {
+            if (a instanceof CharSequence x && b instanceof CharSequence y) {
+                return x.toString().equals(y.toString());
+            }
+            return a == null ? b == null : a.equals(b);
+        }
+
+    }
+
+    /**
+     * The result of an evaluation that failed.
+     */
+    private record Failure(String message) {
+    }
+
+}
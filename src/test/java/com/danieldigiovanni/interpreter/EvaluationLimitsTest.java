@@ -0,0 +1,101 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.exception.LoxBudgetExceededRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.output.RecordingOutputSink;
+import com.danieldigiovanni.parser.Parser;
+import com.danieldigiovanni.typechecker.TypeChecker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EvaluationLimitsTest {
+
+    @Test
+    void allowsExactlyTheStepsOfTheBudget() {
+        // 3 operations: the two additions and the multiplication
+        Expr expr = parse("(1 + 2) * (x + 4)");
+
+        assertEquals(21.0, evaluate(expr, 4));
+        assertThrows(LoxBudgetExceededRuntimeException.class, () -> evaluate(expr, 3));
+    }
+
+    @Test
+    void appliesTheBudgetToTheUnboxedPath() {
+        Expr expr = parse("(1 + 2) * (x + 4)");
+        RecordingOutputSink sink = new RecordingOutputSink();
+
+        new Interpreter(Map.of("x", 3.0), new EvaluationLimits(4, null)).interpret(expr, sink);
+        assertEquals(List.of("21"), sink.getResults());
+        assertThrows(
+            LoxBudgetExceededRuntimeException.class,
+            () -> new Interpreter(Map.of("x", 3.0), new EvaluationLimits(3, null))
+                .interpret(expr, new RecordingOutputSink())
+        );
+    }
+
+    @Test
+    void chargesTheOperandsOfEqualitiesDecidedByTheirTypes() {
+        // Proven to be false without comparing the operands, which take 3 steps
+        Expr expr = new TypeChecker().check(parse("((1 + 2) + 3) == (\"a\" + \"b\")"));
+
+        assertEquals(false, evaluate(expr, 4));
+        assertThrows(LoxBudgetExceededRuntimeException.class, () -> evaluate(expr, 3));
+        // As many steps as without the proof
+        Expr unchecked = parse("((1 + 2) + 3) == (\"a\" + \"b\")");
+        assertEquals(false, evaluate(unchecked, 4));
+        assertThrows(LoxBudgetExceededRuntimeException.class, () -> evaluate(unchecked, 3));
+    }
+
+    @Test
+    void stopsACancelledEvaluation() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+
+        // The token is checked periodically, not at every step
+        assertThrows(
+            LoxCancelledRuntimeException.class,
+            () -> new Interpreter(Map.of(), new EvaluationLimits(Long.MAX_VALUE, cancellation))
+                .evaluate(parse(sum(1 << 12)))
+        );
+    }
+
+    @Test
+    void stopsAnEvaluationCancelledFromAnotherThread() throws InterruptedException {
+        // Large enough to take much longer than the cancellation
+        Expr expr = parse(sum(1 << 16));
+        CancellationToken cancellation = new CancellationToken();
+        Interpreter interpreter = new Interpreter(
+            Map.of(),
+            new EvaluationLimits(Long.MAX_VALUE, cancellation)
+        );
+
+        Thread canceller = new Thread(cancellation::cancel);
+        canceller.start();
+        canceller.join();
+        assertThrows(LoxCancelledRuntimeException.class, () -> {
+            while (true) {
+                interpreter.evaluate(expr);
+            }
+        });
+    }
+
+    private static Object evaluate(Expr expr, long budget) {
+        return new Interpreter(Map.of("x", 3.0), new EvaluationLimits(budget, null)).evaluate(expr);
+    }
+
+    private static String sum(int count) {
+        return count == 1 ? "1" : "(" + sum(count / 2) + " + " + sum(count / 2) + ")";
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
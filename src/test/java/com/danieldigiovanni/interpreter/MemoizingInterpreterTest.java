@@ -0,0 +1,87 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MemoizingInterpreterTest {
+
+    @Test
+    void evaluatesARepeatedSubtreeOnce() {
+        MemoizingInterpreter interpreter = new MemoizingInterpreter(100);
+
+        assertEquals(9.0, interpreter.evaluate(parse("(1 + 2) * (1 + 2)")));
+        assertEquals(
+            "2/100 entries, 1 hits, 2 misses, 0 evictions",
+            interpreter.getCacheStatistics()
+        );
+    }
+
+    @Test
+    void reusesResultsAcrossExpressions() {
+        MemoizingInterpreter interpreter = new MemoizingInterpreter(100);
+
+        interpreter.evaluate(parse("\"a\" + \"b\""));
+        assertEquals("ab", interpreter.evaluate(parse("((\"a\") + \"b\")")).toString());
+        assertEquals(
+            "1/100 entries, 1 hits, 1 misses, 0 evictions",
+            interpreter.getCacheStatistics()
+        );
+    }
+
+    @Test
+    void doesNotCacheSubtreesReadingVariables() {
+        MemoizingInterpreter interpreter = new MemoizingInterpreter(100);
+        Expr expr = parse("x + (1 + 2)");
+
+        assertEquals(4.0, interpreter.evaluate(expr, Map.of("x", 1.0), EvaluationLimits.NONE));
+        assertEquals(5.0, interpreter.evaluate(expr, Map.of("x", 2.0), EvaluationLimits.NONE));
+        assertEquals(
+            "1/100 entries, 1 hits, 1 misses, 0 evictions",
+            interpreter.getCacheStatistics()
+        );
+    }
+
+    @Test
+    void throwsRuntimeErrorsAgain() {
+        MemoizingInterpreter interpreter = new MemoizingInterpreter(100);
+        Expr expr = parse("1 + -nil");
+
+        assertThrows(LoxRuntimeException.class, () -> interpreter.evaluate(expr));
+        assertThrows(LoxRuntimeException.class, () -> interpreter.evaluate(expr));
+    }
+
+    @Test
+    void cacheKeysDoNotKeepTheSourceAlive() throws InterruptedException {
+        MemoizingInterpreter interpreter = new MemoizingInterpreter(100);
+        String source = new String("\"left\" == \"right\"");
+        interpreter.evaluate(parse(source));
+        WeakReference<String> reference = new WeakReference<>(source);
+        source = null;
+
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertEquals(false, interpreter.evaluate(parse("\"left\" == \"right\"")));
+        assertEquals(
+            "1/100 entries, 1 hits, 1 misses, 0 evictions",
+            interpreter.getCacheStatistics()
+        );
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
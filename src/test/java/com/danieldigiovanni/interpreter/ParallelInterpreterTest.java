@@ -0,0 +1,119 @@
+package com.danieldigiovanni.interpreter;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.interpreter.exception.LoxBudgetExceededRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxRuntimeException;
+import com.danieldigiovanni.interpreter.exception.LoxUndefinedVariableRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelInterpreterTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    /**
+     * Splits every operation whose operands have at least 3 nodes.
+     */
+    private final ParallelInterpreter interpreter = new ParallelInterpreter(this.pool, 3);
+
+    @AfterEach
+    void shutDownPool() {
+        this.pool.shutdown();
+    }
+
+    @Test
+    void readsTheBoundVariablesInEverySubtree() {
+        Expr expr = parse(sum("x", 64));
+
+        assertEquals(
+            128.0,
+            this.interpreter.evaluate(expr, Map.of("x", 2.0), EvaluationLimits.NONE)
+        );
+        assertThrows(
+            LoxUndefinedVariableRuntimeException.class,
+            () -> this.interpreter.evaluate(expr)
+        );
+    }
+
+    @Test
+    void reportsTheErrorOfTheLeftOperandFirst() {
+        Expr expr = parse("(" + sum("1", 8) + " + -nil) - (" + sum("1", 8) + " < \"a\")");
+
+        LoxRuntimeException exception = assertThrows(
+            LoxRuntimeException.class,
+            () -> this.interpreter.evaluate(expr)
+        );
+        assertEquals("Unary MINUS operator: operand must be a number", exception.getMessage());
+    }
+
+    @Test
+    void sharesTheBudgetBetweenSubtrees() {
+        // 63 additions
+        Expr expr = parse(sum("1", 64));
+
+        assertEquals(
+            64.0,
+            this.interpreter.evaluate(expr, Map.of(), new EvaluationLimits(63, null))
+        );
+        assertThrows(
+            LoxBudgetExceededRuntimeException.class,
+            () -> this.interpreter.evaluate(expr, Map.of(), new EvaluationLimits(62, null))
+        );
+    }
+
+    @Test
+    void stopsEverySubtreeWhenCancelled() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+
+        assertThrows(
+            LoxCancelledRuntimeException.class,
+            () -> this.interpreter.evaluate(
+                parse(sum("1", 64)),
+                Map.of(),
+                new EvaluationLimits(Long.MAX_VALUE, cancellation)
+            )
+        );
+    }
+
+    @Test
+    void cancelsTheTokensOfPartsOfAnEvaluationWithTheirParent() {
+        CancellationToken parent = new CancellationToken();
+        CancellationToken child = new CancellationToken(parent);
+        CancellationToken sibling = new CancellationToken(parent);
+
+        child.cancel();
+        assertFalse(parent.isCancelled());
+        assertFalse(sibling.isCancelled());
+
+        parent.cancel();
+        assertTrue(sibling.isCancelled());
+    }
+
+    /**
+     * @return A balanced sum of a term repeated a power of two times, fully
+     *         parenthesized.
+     */
+    private static String sum(String term, int count) {
+        if (count == 1) {
+            return term;
+        }
+        return "(" + sum(term, count / 2) + " + " + sum(term, count / 2) + ")";
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
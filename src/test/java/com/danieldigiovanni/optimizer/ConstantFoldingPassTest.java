@@ -0,0 +1,67 @@
+package com.danieldigiovanni.optimizer;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.Literal;
+import com.danieldigiovanni.interpreter.CancellationToken;
+import com.danieldigiovanni.interpreter.EvaluationLimits;
+import com.danieldigiovanni.interpreter.Interpreter;
+import com.danieldigiovanni.interpreter.exception.LoxCancelledRuntimeException;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConstantFoldingPassTest {
+
+    @Test
+    void foldsConstantSubtrees() {
+        Expr folded = new ConstantFoldingPass().apply(parse("(1 + 2) * (3 + 4)"));
+
+        assertEquals(21.0, assertInstanceOf(Literal.class, folded).getValue());
+    }
+
+    @Test
+    void leavesFailingSubtreesToRuntime() {
+        Expr folded = new ConstantFoldingPass().apply(parse("(1 + 2) * (3 + nil)"));
+
+        assertFalse(folded instanceof Literal);
+    }
+
+    @Test
+    void stopsFoldingWhenTheBudgetIsExhausted() {
+        Expr folded = new ConstantFoldingPass(new EvaluationLimits(2, null))
+            .apply(parse("(1 + 2) * (3 + 4)"));
+
+        // Both additions were folded, but not the multiplication
+        assertFalse(folded instanceof Literal);
+        assertEquals(21.0, new Interpreter().evaluate(folded));
+    }
+
+    @Test
+    void stopsWhenCancelled() {
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+        PassManager passManager = PassManager.defaultPipeline(
+            new EvaluationLimits(Long.MAX_VALUE, cancellation)
+        );
+
+        // The token is checked periodically, not at every step
+        assertThrows(
+            LoxCancelledRuntimeException.class,
+            () -> passManager.optimize(parse(sum(1 << 12)))
+        );
+    }
+
+    private static String sum(int count) {
+        return count == 1 ? "1" : "(" + sum(count / 2) + " + " + sum(count / 2) + ")";
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.danieldigiovanni.script;
+
+import org.junit.jupiter.api.Test;
+
+import javax.script.Compilable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoxScriptEngineTest {
+
+    private final ScriptEngine engine =
+        new ScriptEngineManager().getEngineByName("lox");
+
+    @Test
+    void theEngineIsDiscovered() {
+        assertNotNull(this.engine);
+    }
+
+    @Test
+    void scriptsEvaluateToLoxValues() throws ScriptException {
+        assertEquals(3.0, this.engine.eval("1 + 2"));
+        assertEquals("ab", this.engine.eval("\"a\" + \"b\""));
+        assertEquals(Boolean.FALSE, this.engine.eval("2 < 1"));
+        assertNull(this.engine.eval("nil"));
+    }
+
+    @Test
+    void bindingsAreVariables() throws ScriptException {
+        this.engine.put("x", 4);
+        this.engine.put("s", "ab");
+
+        assertEquals(8.0, this.engine.eval("x * 2"));
+        assertEquals("abab", ((Compilable) this.engine).compile("s + s").eval());
+    }
+
+    @Test
+    void errorsAreThrownAndWritten() {
+        StringWriter errors = new StringWriter();
+        this.engine.getContext().setErrorWriter(errors);
+
+        assertThrows(ScriptException.class, () -> this.engine.eval("1 + @"));
+        assertThrows(ScriptException.class, () -> this.engine.eval("-\"a\""));
+        assertEquals(2, errors.toString().lines().count());
+    }
+
+    @Test
+    void bindingsOfOtherTypesAreNotVariables() {
+        this.engine.getContext().setErrorWriter(new StringWriter());
+        this.engine.put("x", new Object());
+
+        assertThrows(ScriptException.class, () -> this.engine.eval("x"));
+    }
+
+    @Test
+    void theFactoryDescribesTheSyntax() {
+        ScriptEngineFactory factory = this.engine.getFactory();
+
+        assertEquals("obj.m(a, b)", factory.getMethodCallSyntax("obj", "m", "a", "b"));
+        assertEquals("obj.m()", factory.getMethodCallSyntax("obj", "m"));
+        assertEquals("\"ab\"", factory.getOutputStatement("a\"b"));
+        assertEquals(1.0, assertDoesNotThrow(() -> this.engine.eval(factory.getProgram("1"))));
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.danieldigiovanni.typechecker;
+
+import com.danieldigiovanni.expr.Expr;
+import com.danieldigiovanni.expr.StaticType;
+import com.danieldigiovanni.lexer.Lexer;
+import com.danieldigiovanni.parser.Parser;
+import com.danieldigiovanni.token.TokenType;
+import com.danieldigiovanni.typechecker.exception.BinaryOperandsTypeException;
+import com.danieldigiovanni.typechecker.exception.LoxTypeException;
+import com.danieldigiovanni.typechecker.exception.PlusOperandsTypeException;
+import com.danieldigiovanni.typechecker.exception.UnaryOperandTypeException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TypeCheckerTest {
+
+    @Test
+    void labelsEveryNodeWithItsStaticType() {
+        assertEquals(StaticType.NUMBER, check("(1 + 2) * 3").getStaticType());
+        assertEquals(StaticType.STRING, check("\"a\" + \"b\"").getStaticType());
+        assertEquals(StaticType.BOOLEAN, check("(1 + 2) < 3").getStaticType());
+        assertEquals(StaticType.BOOLEAN, check("!nil").getStaticType());
+        assertEquals(StaticType.NIL, check("(nil)").getStaticType());
+        assertEquals(StaticType.UNKNOWN, check("x + 1").getStaticType());
+        assertEquals(StaticType.UNKNOWN, check("1 or \"a\"").getStaticType());
+        assertEquals(StaticType.NUMBER, check("1 or 2").getStaticType());
+    }
+
+    @Test
+    void reportsPlusOperandsOfDifferentTypes() {
+        LoxTypeException exception = checkFails("1 + \"a\"");
+
+        assertInstanceOf(PlusOperandsTypeException.class, exception);
+        assertEquals(TokenType.PLUS, exception.getToken().getType());
+        assertEquals(
+            "Binary PLUS operator: operands must be both numbers or both strings",
+            exception.getMessage()
+        );
+    }
+
+    @Test
+    void reportsNonNumericOperands() {
+        LoxTypeException exception = checkFails("\"a\" < 1");
+
+        assertInstanceOf(BinaryOperandsTypeException.class, exception);
+        assertEquals(
+            "Binary LESS operator: operands must be both numbers",
+            exception.getMessage()
+        );
+    }
+
+    @Test
+    void reportsNonNumericUnaryOperand() {
+        LoxTypeException exception = checkFails("-true");
+
+        assertInstanceOf(UnaryOperandTypeException.class, exception);
+        assertEquals(
+            "Unary MINUS operator: operand must be a number",
+            exception.getMessage()
+        );
+    }
+
+    @Test
+    void reportsTheLineOfTheOperator() {
+        LoxTypeException exception = checkFails("1\n\n*\nnil");
+
+        assertEquals(3, exception.getToken().getLineNumber());
+    }
+
+    @Test
+    void reportsTheErrorTheInterpreterWouldThrowFirst() {
+        LoxTypeException exception = checkFails("(-\"a\") + (1 - nil)");
+
+        assertInstanceOf(UnaryOperandTypeException.class, exception);
+    }
+
+    @Test
+    void leavesErrorsAfterAPossibleRuntimeFailureToRuntime() {
+        // The variable may be undefined, which would be the first error
+        Expr expr = check("(-x) + (1 - nil)");
+
+        assertEquals(StaticType.UNKNOWN, expr.getStaticType());
+    }
+
+    @Test
+    void leavesErrorsInShortCircuitedOperandsToRuntime() {
+        assertEquals(StaticType.UNKNOWN, check("true or (1 - nil)").getStaticType());
+        assertEquals(StaticType.UNKNOWN, check("false and -\"a\"").getStaticType());
+    }
+
+    private static Expr check(String source) {
+        return new TypeChecker().check(parse(source));
+    }
+
+    private static LoxTypeException checkFails(String source) {
+        Expr expr = parse(source);
+        return assertThrows(LoxTypeException.class, () -> new TypeChecker().check(expr));
+    }
+
+    private static Expr parse(String source) {
+        return new Parser(new Lexer(source).lexAllTokens()).parse();
+    }
+
+}